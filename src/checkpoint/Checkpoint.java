@@ -0,0 +1,93 @@
+package checkpoint;
+
+import classes.gameSpace.BoardSnapshot;
+import classes.gameSpace.Container;
+import ui.managers.Generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A checkpoint read back from disk (ref. Checkpointer for the format).
+ *
+ * Attributes:
+ *      tick: the tick at which it was captured.
+ *      savedMillis: when the file was written (its modification time).
+ */
+public class Checkpoint {
+
+    private final BoardSnapshot snapshot;
+    private final long tick;
+    private final long seed;
+    private final long generated;
+    private final long savedMillis;
+
+    private Checkpoint(BoardSnapshot snapshot, long tick, long seed, long generated, long savedMillis) {
+        this.snapshot = snapshot;
+        this.tick = tick;
+        this.seed = seed;
+        this.generated = generated;
+        this.savedMillis = savedMillis;
+    }
+
+    /**
+     * @return the checkpoint in the file; null if there is none, or it is not a (complete, intact) checkpoint of this
+     *         version.
+     */
+    public static Checkpoint load(Path file) {
+        ByteBuffer buffer = ByteBuffer.allocate(Checkpointer.LENGTH);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // keep reading.
+            }
+            if (buffer.hasRemaining() || channel.size() != Checkpointer.LENGTH) {
+                return null;
+            }
+            buffer.flip();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, Checkpointer.LENGTH - 4));
+            if (buffer.getInt(Checkpointer.LENGTH - 4) != (int) crc.getValue()
+                    || buffer.getInt() != Checkpointer.MAGIC || buffer.getShort() != Checkpointer.VERSION) {
+                return null;
+            }
+            long tick = buffer.getLong();
+            long seed = buffer.getLong();
+            long generated = buffer.getLong();
+            BoardSnapshot snapshot = new BoardSnapshot();
+            snapshot.readFrom(buffer);
+            return new Checkpoint(snapshot, tick, seed, generated, Files.getLastModifiedTime(file).toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("The checkpoint could not be read: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the game to the checkpointed state (the Updater must be resynchronised afterwards, ref.
+     *      Updater.resynchronise()).
+     */
+    public void restoreInto(Container container, Generator generator) {
+        container.restoreSnapshot(snapshot);
+        generator.restore(seed, generated);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getScore() {
+        return snapshot.getScore();
+    }
+
+    public long getSavedMillis() {
+        return savedMillis;
+    }
+}
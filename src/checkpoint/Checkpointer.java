@@ -0,0 +1,270 @@
+package checkpoint;
+
+import classes.gameSpace.BoardSnapshot;
+import classes.gameSpace.Container;
+import ui.managers.Generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Periodically saves the game in progress so that it can be resumed after a crash (ref. Checkpoint.load()).
+ *
+ * Every interval ticks the game thread captures the state (the settled blocks as a bitset, the tracked BlockCluster, the
+ *      score and the Generator's seed and count; a few kilobytes at most) into one half of a double buffer and hands it
+ *      to the writer thread, and that is all it does: no encoding, no I/O. The writer thread encodes the half it was
+ *      handed, writes it to a temporary file through a FileChannel, forces it and atomically renames it over the
+ *      checkpoint file, so the checkpoint on disk is always either the previous one or the new one in full.
+ *
+ * If the writer is still busy with the half that is due to be captured into, that checkpoint is skipped (ref.
+ *      getSkipped()): the game never waits. A capture that is handed over before the writer took the previous one
+ *      simply replaces it.
+ *
+ * Attributes:
+ *      halves: the double buffer; busy[i] is set from the capture of halves[i] until the writer is done with it.
+ *      pending: the half waiting for the writer (-1 if none).
+ *      back: the half the next capture goes into.
+ *      discarding: set by discard(); the writer drops whatever is pending and deletes the files instead of writing.
+ *
+ * File format (big-endian): 'T' 'C' 'K' 'P' | short VERSION | long tick | long seed | long generated
+ *      | BoardSnapshot (ref. BoardSnapshot.writeTo()) | int CRC32 of everything before it.
+ *
+ * NOTE: like BoardSnapshot, only the tracked BlockCluster is saved (not the extra ones of the multi-cluster mode).
+ */
+public class Checkpointer implements AutoCloseable {
+
+    public final static int MAGIC = ('T' << 24) | ('C' << 16) | ('K' << 8) | 'P';
+    public final static short VERSION = 2;
+    public final static int LENGTH = 4 + 2 + 8 + 8 + 8 + BoardSnapshot.ENCODED_LENGTH + 4;
+
+    private final Path file;
+    private final Path temporary;
+    private final Container container;
+    private final Generator generator;
+    private final int interval;
+
+    private final Half[] halves;
+    private final AtomicBoolean[] busy;
+    private final AtomicInteger pending;
+    private int back;
+    private long ticks;
+
+    private final ByteBuffer encoded;
+    private final AtomicLong written;
+    private final AtomicLong skipped;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean discarding;
+
+    /**
+     * The captured state; written by the game thread, then only read by the writer thread (the hand-over through
+     *      pending orders the two).
+     */
+    private static class Half {
+        private final BoardSnapshot snapshot = new BoardSnapshot();
+        private long tick;
+        private long seed;
+        private long generated;
+    }
+
+    /**
+     * The writer thread is not started until start().
+     * @param interval ticks between checkpoints.
+     */
+    public Checkpointer(Path file, Container container, Generator generator, int interval) {
+        this.file = file;
+        this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        this.container = container;
+        this.generator = generator;
+        this.interval = interval;
+
+        halves = new Half[] {new Half(), new Half()};
+        busy = new AtomicBoolean[] {new AtomicBoolean(), new AtomicBoolean()};
+        pending = new AtomicInteger(-1);
+
+        encoded = ByteBuffer.allocateDirect(LENGTH);
+        written = new AtomicLong();
+        skipped = new AtomicLong();
+    }
+
+    /**
+     * Starts the writer thread (once the Checkpointer is fully constructed, so that the thread never sees it in part).
+     * @return this.
+     */
+    public Checkpointer start() {
+        if (writer == null) {
+            running = true;
+            writer = new Thread(this::run, "checkpoint-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        return this;
+    }
+
+    /**
+     * @return the checkpoint file of the GUI game: the one named by the system property tetris.checkpoint, by default
+     *         checkpoint.bin.
+     */
+    public static Path defaultFile() {
+        return Path.of(System.getProperty("tetris.checkpoint", "checkpoint.bin"));
+    }
+
+    /**
+     * Is to be invoked on the game thread after every tick; captures a checkpoint every interval ticks.
+     */
+    public void tick() {
+        ticks++;
+        if (ticks % interval == 0) {
+            capture();
+        }
+    }
+
+    /**
+     * Captures the state now (on the game thread) and hands it to the writer.
+     * @return false if the checkpoint was skipped because the writer was still busy with the half due (or is not running).
+     */
+    public boolean capture() {
+        if (!running || !busy[back].compareAndSet(false, true)) {
+            skipped.incrementAndGet();
+            return false;
+        }
+        Half half = halves[back];
+        container.saveSnapshot(half.snapshot);
+        half.tick = ticks;
+        half.seed = generator.getSeed();
+        half.generated = generator.getGeneratedCount();
+
+        int replaced = pending.getAndSet(back);
+        if (replaced >= 0) {
+            busy[replaced].set(false); // the writer never took it.
+        }
+        back = 1 - back;
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * @return checkpoints written to disk so far.
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return checkpoints skipped because the writer was busy (or not running).
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Stops checkpointing and deletes the checkpoint (e.g. once the game is over there is nothing to resume).
+     *
+     * Returns at once: the deletion is left to the writer thread, after the write (and force) it may be in the middle
+     *      of, so that the caller (the EDT, ref. GameBoard.terminate()) never waits on the disk. The next game's
+     *      Checkpointer writes its first checkpoint interval ticks later, long after the files are gone.
+     */
+    public void discard() {
+        if (writer == null) {
+            delete(); // nothing was ever written by this Checkpointer but a stale file may be there.
+            return;
+        }
+        discarding = true;
+        running = false;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Writes the pending checkpoint, if any, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer thread.
+     */
+    private void run() {
+        while (true) {
+            if (discarding) {
+                int index = pending.getAndSet(-1);
+                if (index >= 0) {
+                    busy[index].set(false);
+                }
+                delete();
+                return;
+            }
+            boolean stopping = !running;
+            int index = pending.getAndSet(-1);
+            if (index >= 0) {
+                try {
+                    write(halves[index]);
+                    written.incrementAndGet();
+                } catch (IOException e) {
+                    System.err.println("Checkpointing failed: " + e.getMessage());
+                } finally {
+                    busy[index].set(false);
+                }
+            } else if (stopping) {
+                return;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    private void delete() {
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            System.err.println("The checkpoint could not be deleted: " + e.getMessage());
+        }
+    }
+
+    private void write(Half half) throws IOException {
+        encoded.clear();
+        encoded.putInt(MAGIC).putShort(VERSION).putLong(half.tick).putLong(half.seed).putLong(half.generated);
+        half.snapshot.writeTo(encoded);
+        CRC32 crc = new CRC32();
+        encoded.flip();
+        crc.update(encoded.duplicate());
+        encoded.limit(encoded.capacity());
+        encoded.position(LENGTH - 4);
+        encoded.putInt((int) crc.getValue());
+        encoded.flip();
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
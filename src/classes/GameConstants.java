@@ -21,8 +21,7 @@ public class GameConstants {
      *          COLUMNS = MAXIMUM_Y + 1
      *          INITIAL_Y_COORDINATE is the "spawning point" for game objects if you will.
      *          MAX_DIMENSION_OF_BLOCK_CLUSTER = 3 since it's a 3x3 grid.
-                SCORE: Very rudimentary implementation; updated in classes.gameSpace.Container class; utilised in the gui for displaying,
-     *          GAME_OVER = signals for ending the game. keyword volatile is used owing to compiler optimisation. IDK if some actually reads this but finding that BUG WAS UGHHHHHHHHHHHHHHHHHHHH. Hypothesis: each thread has its own stack; possibility to do with Swing's Event Dispatch Thread preloading the value of GAME_OVER and compiler optimisations?
+     *          (SCORE and GAME_OVER used to live here; they are now per game and reside in classes.gameSpace.Container)
      */
 
     public final static int MINIMUM_X = 0;
@@ -42,9 +41,101 @@ public class GameConstants {
     public final static int MAX_DIMENSION_OF_BLOCK_CLUSTER = 3;
 
     /**
-     * Counts the number of rows cleared.
+     * Storage of the settled blocks (ref. classes.gameSpace.PersistentBoard): rows are held CHUNK_ROWS at a time and only
+     * the chunks up to the occupied height exist.
      */
-    public static int SCORE = 0;
+    public final static int CHUNK_ROWS = 8;
 
-    public volatile static boolean  GAME_OVER = false;
-}
\ No newline at end of file
+    /**
+     * Co-op mode (ref. classes.gameSpace.ColumnStripedLock): number of columns guarded by each lock stripe.
+     */
+    public final static int LOCK_STRIPE_WIDTH = 4;
+
+    /**
+     * Interval between two gravity "ticks" in milliseconds (the GUI's timer and the headless server alike).
+     */
+    public final static int GRAVITY_DELAY = 400;
+
+    /**
+     * The GUI's game loop runs (and renders at most) once every FRAME_DELAY milliseconds; user actions are queued for it
+     * (ref. ui.managers.InputQueue) with room for INPUT_QUEUE_CAPACITY.
+     */
+    public final static int FRAME_DELAY = 16;
+    public final static int INPUT_QUEUE_CAPACITY = 256;
+
+    /**
+     * Default delayed auto shift and auto-repeat rate of the sideways movements in milliseconds (ref. ui.managers.AutoShift).
+     */
+    public final static int DAS_DELAY = 170;
+    public final static int ARR_DELAY = 50;
+
+    /**
+     * Speed levels (ref. ui.managers.GravityTimer.setSpeedLevel()): every level shortens the gravity delay by
+     * GRAVITY_DELAY_STEP milliseconds down to MINIMUM_GRAVITY_DELAY; the GUI game goes up a level every
+     * ROWS_PER_SPEED_LEVEL cleared rows.
+     */
+    public final static int GRAVITY_DELAY_STEP = 35;
+    public final static int MINIMUM_GRAVITY_DELAY = 50;
+    public final static int ROWS_PER_SPEED_LEVEL = 5;
+
+    /**
+     * Timing wheel of the ui.managers.GravityScheduler: a wheel "tick" lasts WHEEL_RESOLUTION milliseconds and each of the
+     * WHEEL_LEVELS levels has WHEEL_SLOTS slots (a power of two), i.e. a span of WHEEL_SLOTS times the level below.
+     */
+    public final static int WHEEL_RESOLUTION = 1;
+    public final static int WHEEL_SLOTS = 64;
+    public final static int WHEEL_LEVELS = 4;
+
+    /**
+     * Default port (on localhost) of the GameServer's plaintext tick metrics endpoint (ref. metrics.TickMetrics.export());
+     *      the GUI game only serves one if -Dtetris.metrics.port= is given.
+     */
+    public final static int METRICS_PORT = 7780;
+
+    /**
+     * Events a subscriber may fall behind the game before it starts missing some (ref. classes.events.GameEventPublisher).
+     */
+    public final static int EVENT_BUFFER_CAPACITY = 1024;
+
+    /**
+     * Steady-state bytes the game thread may allocate per tick (ref. main.AllocationBudgetCheck).
+     */
+    public final static int ALLOCATION_BUDGET_PER_TICK = 1024;
+
+    /**
+     * Versus mode (ref. versus.LockstepSession): the simulation runs VERSUS_TICKS_PER_SECOND ticks a second, gravity
+     * acts every VERSUS_GRAVITY_TICKS ticks (i.e. every GRAVITY_DELAY) and late inputs are corrected by rolling back at
+     * most VERSUS_ROLLBACK_WINDOW ticks.
+     */
+    public final static int VERSUS_TICKS_PER_SECOND = 60;
+    public final static int VERSUS_GRAVITY_TICKS = 24;
+    public final static int VERSUS_ROLLBACK_WINDOW = 64;
+
+    /**
+     * Telemetry (ref. telemetry.TelemetryWriter): the ring buffer holds TELEMETRY_RING_CAPACITY records, the file is
+     * written TELEMETRY_BATCH_BYTES at a time (or once records have waited TELEMETRY_FLUSH_DELAY milliseconds) and forced
+     * to the disk every TELEMETRY_SYNC_DELAY milliseconds.
+     */
+    public final static int TELEMETRY_RING_CAPACITY = 1 << 16;
+    public final static int TELEMETRY_BATCH_BYTES = 1 << 20;
+    public final static int TELEMETRY_FLUSH_DELAY = 100;
+    public final static int TELEMETRY_SYNC_DELAY = 1000;
+
+    /**
+     * The leaderboard file (ref. leaderboard.Leaderboard) is mapped, and grows, LEADERBOARD_REGION_ENTRIES entries at a time.
+     */
+    public final static int LEADERBOARD_REGION_ENTRIES = 1 << 16;
+
+    /**
+     * The GUI game is checkpointed every CHECKPOINT_INTERVAL gravity ticks (ref. checkpoint.Checkpointer).
+     */
+    public final static int CHECKPOINT_INTERVAL = 25;
+
+    /**
+     * JIT warm-up during the welcome screen (ref. ui.managers.WarmUp): rounds of WARMUP_ROUND_TICKS ticks until a round's
+     * median tick is within WARMUP_TOLERANCE_PERCENT of the previous one's, for WARMUP_MAX_DURATION milliseconds at most.
+     */
+    public final static int WARMUP_ROUND_TICKS = 2000;
+    public final static int WARMUP_TOLERANCE_PERCENT = 5;
+    public final static int WARMUP_MAX_DURATION = 5000;
+}
@@ -0,0 +1,40 @@
+package classes.events;
+
+import classes.gameObjects.compoundConstructs.Forms;
+import classes.gameObjects.compoundConstructs.Orientations;
+
+/**
+ * The typed events of a game, published by its Container (ref. Container.getEvents()) so that renderers, statistics and
+ *      recorders can follow a game without polling it.
+ *
+ * Positions are those of the 3x3 box of the BlockCluster (leftmost column, uppermost row).
+ */
+public sealed interface GameEvent {
+
+    /**
+     * A BlockCluster was introduced into the game (it emerges above the game space).
+     */
+    record PieceSpawned(Forms form, Orientations orientation, int column) implements GameEvent {
+    }
+
+    /**
+     * A floating BlockCluster moved sideways, down or rotated.
+     */
+    record PieceMoved(Forms form, Orientations orientation, int column, int row) implements GameEvent {
+    }
+
+    /**
+     * A BlockCluster was locked into the settled blocks.
+     */
+    record PieceLocked(Forms form, int column, int row) implements GameEvent {
+    }
+
+    /**
+     * count full rows were removed; score is the score afterwards.
+     */
+    record RowsCleared(int count, int score) implements GameEvent {
+    }
+
+    record GameOver(int score) implements GameEvent {
+    }
+}
@@ -0,0 +1,174 @@
+package classes.events;
+
+import classes.GameConstants;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes the GameEvents of a Container (a java.util.concurrent.Flow.Publisher, so any Reactive Streams subscriber
+ *      will do).
+ *
+ * Events are written into ONE bounded ring buffer shared by all subscribers; each subscription merely keeps a cursor into
+ *      it and is drained on its own executor as far as its demand allows. Publishing therefore never waits for a
+ *      subscriber: one that falls more than the capacity behind skips the events that were overwritten (they are counted,
+ *      ref. Subscription.getDropped()) instead of stalling the game.
+ *
+ * Attributes:
+ *      ring: the last ring.length events; event number n is in ring[n & mask].
+ *      published: the number of events published so far (written after the event itself, hence safely published).
+ *      publishLock: serialises publishers (the co-op mode moves BlockClusters from several threads).
+ */
+public class GameEventPublisher implements Flow.Publisher<GameEvent> {
+
+    private final GameEvent[] ring;
+    private final int mask;
+    private volatile long published;
+    private final ReentrantLock publishLock;
+    private final CopyOnWriteArrayList<Subscription> subscriptions;
+
+    public GameEventPublisher() {
+        this(GameConstants.EVENT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param capacity rounded up to a power of two.
+     */
+    public GameEventPublisher(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        ring = new GameEvent[size];
+        mask = size - 1;
+        publishLock = new ReentrantLock();
+        subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Callers may skip building an event when nobody listens.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public void publish(GameEvent event) {
+        publishLock.lock();
+        try {
+            long sequence = published;
+            ring[(int) (sequence & mask)] = event;
+            published = sequence + 1;
+        } finally {
+            publishLock.unlock();
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    /**
+     * Subscribes with delivery on the common ForkJoinPool.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        subscribe(subscriber, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * The subscriber receives the events published from now on; onNext() is only ever invoked on the executor (e.g.
+     *      EventQueue::invokeLater for a Swing subscriber) and never concurrently.
+     */
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber, Executor executor) {
+        Subscription subscription = new Subscription(subscriber, executor, published);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Attributes:
+     *      cursor: the number of the next event to deliver.
+     *      demand: requested but not yet delivered (Long.MAX_VALUE is unbounded).
+     *      work: the drain "lock": whoever increments it from 0 schedules run(); signals meanwhile make it run again.
+     */
+    public class Subscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final Executor executor;
+        private final AtomicLong demand;
+        private final AtomicInteger work;
+        private final AtomicLong dropped;
+        private long cursor;
+        private volatile boolean cancelled;
+
+        private Subscription(Flow.Subscriber<? super GameEvent> subscriber, Executor executor, long cursor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.cursor = cursor;
+            demand = new AtomicLong();
+            work = new AtomicInteger();
+            dropped = new AtomicLong();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> (current + added < 0) ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * @return the number of events this subscriber missed by falling too far behind.
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        private void signal() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers as many events as there are and as are demanded.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                while (!cancelled && demand.get() > 0 && cursor < published) {
+                    GameEvent event = ring[(int) (cursor & mask)];
+                    // the slot may have been overwritten meanwhile (or be being overwritten): the event then is lost.
+                    long behind = published - cursor;
+                    if (behind >= ring.length) {
+                        long skipTo = published - ring.length + 1;
+                        dropped.addAndGet(skipTo - cursor);
+                        cursor = skipTo;
+                        continue;
+                    }
+                    cursor++;
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(event);
+                }
+                missed = work.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
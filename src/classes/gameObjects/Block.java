@@ -9,13 +9,21 @@ package classes.gameObjects;
  *          yCoord: this is the individual cell's row location when it is either in EITHER the Block Cluster in Generator, Updater, or Container
  *          note that all the classes which contain a reference to a "current" blockCluster refer to the same blockCluster at ALL times except one: this one-off location is inside the updateCluster() inside the Update Class.
  *          location refers to the gameSpace.Container's cellSpatialUnits.
+ *          piece: a small id of what the block is part of, for colouring: FIRST_FORM_PIECE + the ordinal of the Form of its
+ *              BlockCluster, or PLAIN_PIECE for a block of no BlockCluster (garbage rows, restored boards). NO_PIECE stands
+ *              for an unoccupied cell wherever pieces are stored per cell (ref. gameSpace.Occupancy.getPiece()).
  *
- * NOTE: A cell (when is part of a blockCluster) is NOT consider to be at that location (hence the terminology float, This
- *       invariant is broken for rendering of the board via the invocation of amalgamateGraphics() inside the gui.GameBoard Class.
+ * NOTE: A cell (when is part of a blockCluster) is NOT consider to be at that location (hence the terminology float). The
+ *       gui.GameBoard draws such blocks over the grid instead (ref. GameBoard.updateDisplayGrid()).
  */
 public class Block {
+    public final static byte NO_PIECE = 0;
+    public final static byte PLAIN_PIECE = 1;
+    public final static byte FIRST_FORM_PIECE = 2;
+
     int xCoord;
     int yCoord;
+    private byte piece = PLAIN_PIECE;
 
     /**
      *
@@ -43,6 +51,14 @@ public class Block {
         this.yCoord = yCoord;
     }
 
+    public byte getPiece() {
+        return piece;
+    }
+
+    public void setPiece(byte piece) {
+        this.piece = piece;
+    }
+
     public void moveLeft() {
         xCoord--;
     }
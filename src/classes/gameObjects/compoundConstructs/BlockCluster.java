@@ -108,6 +108,12 @@ public class BlockCluster {
                 BlockClusterTen(x, o);
             }
         }
+        byte piece = (byte) (Block.FIRST_FORM_PIECE + form.ordinal());
+        for (Block block : blocks) {
+            if (block != null) {
+                block.setPiece(piece);
+            }
+        }
     }
 
     /**
@@ -430,6 +436,19 @@ public class BlockCluster {
         }
     }
 
+    /**
+     * Moves the block by the given number of rows at once (negative rows move it up). Used when a game is restored
+     *      (ref. Container.restoreSnapshot()) and when garbage rows lift the blockCluster.
+     * REQUIRES: space is ensured by the caller.
+     */
+    public void moveDown(int rows) {
+        for (Block block : blocks) {
+            if (block != null) {
+                block.moveDown(rows);
+            }
+        }
+    }
+
     /**
      * REQUIRES: space os ensured in concert by classes Updater and Container.
      * Moves the block left.
@@ -455,6 +474,18 @@ public class BlockCluster {
 
     }
 
+    /**
+     * REQUIRES: space is ensured by the caller (ref. Container.freeColumns()).
+     * Moves the block by the given number of columns at once (negative columns move it left).
+     */
+    public void moveSideways(int columns) {
+        for (Block block : blocks) {
+            if (block != null) {
+                block.setxCoord(block.getxCoord() + columns);
+            }
+        }
+    }
+
     /**
      * @return Array of blocks that need to be checked by the container class.
      *
@@ -481,6 +512,40 @@ public class BlockCluster {
         return orientation;
     }
 
+    public Forms getForm() {
+        return form;
+    }
+
+    /**
+     * The blocks array maps onto a 3x3 box (index i is at column i % 3 and row i / 3 of the box) which keeps its place
+     *      on rotations; these two methods locate the top left corner of that box (it may hold a null block).
+     * Note that the member variables xCoord and yCoord are not maintained, hence the computation.
+     *
+     * @return the column of the top left corner of the 3x3 box.
+     */
+    public int getBoxX() {
+        for (int i = 0; i < 9; i++) {
+            Block block = blocks.get(i);
+            if (block != null) {
+                return block.getxCoord() - i % GameConstants.MAX_DIMENSION_OF_BLOCK_CLUSTER;
+            }
+        }
+        return xCoord;
+    }
+
+    /**
+     * @return the row of the top left corner of the 3x3 box.
+     */
+    public int getBoxY() {
+        for (int i = 0; i < 9; i++) {
+            Block block = blocks.get(i);
+            if (block != null) {
+                return block.getyCoord() - i / GameConstants.MAX_DIMENSION_OF_BLOCK_CLUSTER;
+            }
+        }
+        return yCoord;
+    }
+
     /**
      * Prints the contents of the block. Used for testing.
      */
@@ -0,0 +1,175 @@
+package classes.gameSpace;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.Forms;
+import classes.gameObjects.compoundConstructs.Orientations;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A compact copy of the state of a Container (ref. Container.saveSnapshot() and restoreSnapshot()), used where the game
+ *      must be rewound e.g. the rollback of the versus mode.
+ *
+ * Instances are meant to be reused: saving into an existing snapshot does not allocate. The settled blocks are read back
+ *      through Occupancy (ref. PersistentBoard.of()).
+ *
+ * Attributes:
+ *      bits: settled blocks; bit (y * COLUMNS + x) is set if the cell is occupied.
+ *      pieces: the piece id of every settled block (ref. Block.getPiece()), a nibble per cell: nibble (y * COLUMNS + x)
+ *          i.e. bits 4 * (index % 16) up of pieces[index / 16]. Piece ids fit in 4 bits (ref. PIECE_BITS).
+ *      form, orientation, boxX, boxY: the tracked floating BlockCluster (form is null if there is none).
+ *      score, gameOver: as in the Container.
+ *
+ * NOTE: only the tracked blockCluster is captured, i.e. not the additional BlockClusters of the multi-cluster mode.
+ */
+public class BoardSnapshot implements Occupancy {
+
+    public final static int WORDS = (GameConstants.ROWS * GameConstants.COLUMNS + 63) / 64;
+    public final static int PIECE_WORDS = (GameConstants.ROWS * GameConstants.COLUMNS + 15) / 16;
+
+    /**
+     * Bits per piece id: NO_PIECE, PLAIN_PIECE and a piece per Form.
+     */
+    private final static int PIECE_BITS = 4;
+    private final static long PIECE_MASK = (1L << PIECE_BITS) - 1;
+
+    final long[] bits;
+    final long[] pieces;
+    Forms form;
+    Orientations orientation;
+    int boxX;
+    int boxY;
+    int score;
+    boolean gameOver;
+
+    public BoardSnapshot() {
+        bits = new long[WORDS];
+        pieces = new long[PIECE_WORDS];
+    }
+
+    /**
+     * Length of the encoding (ref. writeTo()).
+     */
+    public final static int ENCODED_LENGTH = WORDS * 8 + PIECE_WORDS * 8 + 1 + 1 + 2 + 2 + 4 + 1;
+
+    /**
+     * Encodes the snapshot: long[WORDS] bits | long[PIECE_WORDS] pieces | byte form (-1 if none) | byte orientation
+     *      | short boxX | short boxY | int score | byte gameOver.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        for (long word : pieces) {
+            buffer.putLong(word);
+        }
+        buffer.put((byte) (form == null ? -1 : form.ordinal()));
+        buffer.put((byte) (orientation == null ? -1 : orientation.ordinal()));
+        buffer.putShort((short) boxX).putShort((short) boxY);
+        buffer.putInt(score);
+        buffer.put((byte) (gameOver ? 1 : 0));
+    }
+
+    /**
+     * Decodes what writeTo() encoded into this snapshot.
+     */
+    public void readFrom(ByteBuffer buffer) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = buffer.getLong();
+        }
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = buffer.getLong();
+        }
+        byte formOrdinal = buffer.get();
+        byte orientationOrdinal = buffer.get();
+        form = (formOrdinal < 0) ? null : Forms.values()[formOrdinal];
+        orientation = (orientationOrdinal < 0) ? null : Orientations.values()[orientationOrdinal];
+        boxX = buffer.getShort();
+        boxY = buffer.getShort();
+        score = buffer.getInt();
+        gameOver = buffer.get() != 0;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public boolean isOccupied(int x, int y) {
+        checkBounds(x, y);
+        int index = y * GameConstants.COLUMNS + x;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean isRowFull(int y) {
+        for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+            if (!isOccupied(x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public byte getPiece(int x, int y) {
+        if (!isOccupied(x, y)) {
+            return Block.NO_PIECE;
+        }
+        int index = y * GameConstants.COLUMNS + x;
+        return (byte) ((pieces[index >>> 4] >>> (PIECE_BITS * (index & 15))) & PIECE_MASK);
+    }
+
+    /**
+     * Records the settled block of a cell (ref. Container.saveSnapshot(), which clears the snapshot first).
+     */
+    void setOccupied(int x, int y, byte piece) {
+        int index = y * GameConstants.COLUMNS + x;
+        bits[index >>> 6] |= 1L << index;
+        pieces[index >>> 4] |= (piece & PIECE_MASK) << (PIECE_BITS * (index & 15));
+    }
+
+    /**
+     * Empties the settled blocks (without allocating).
+     */
+    void clearBlocks() {
+        Arrays.fill(bits, 0);
+        Arrays.fill(pieces, 0);
+    }
+
+    /**
+     * @return the row of the first occupied cell (the cells are in row order); MAXIMUM_Y + 1 if there is none.
+     */
+    @Override
+    public int highestMaterialisedRow() {
+        for (int word = 0; word < bits.length; word++) {
+            if (bits[word] != 0) {
+                return (word * 64 + Long.numberOfTrailingZeros(bits[word])) / GameConstants.COLUMNS;
+            }
+        }
+        return GameConstants.MAXIMUM_Y + 1;
+    }
+
+    /**
+     * @return a hash of the entire state; equal states have equal checksums (used to detect desynchronisation).
+     */
+    public long checksum() {
+        long hash = Arrays.hashCode(bits);
+        hash = hash * 31 + Arrays.hashCode(pieces);
+        hash = hash * 31 + (form == null ? -1 : form.ordinal());
+        hash = hash * 31 + (orientation == null ? -1 : orientation.ordinal());
+        hash = hash * 31 + boxX;
+        hash = hash * 31 + boxY;
+        hash = hash * 31 + score;
+        hash = hash * 31 + (gameOver ? 1 : 0);
+        return hash;
+    }
+
+    private static void checkBounds(int x, int y) {
+        if (x < GameConstants.MINIMUM_X || x > GameConstants.MAXIMUM_X || y < GameConstants.MINIMUM_Y || y > GameConstants.MAXIMUM_Y) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") lies outside of the game space");
+        }
+    }
+}
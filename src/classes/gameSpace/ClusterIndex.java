@@ -0,0 +1,144 @@
+package classes.gameSpace;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.BlockCluster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Broad-phase spatial index of the "floating" BlockClusters of the Container. Is only of consequence in the multi-cluster
+ *      mode (ref. Container.setMaxFloatingClusters()) where many BlockClusters fall at once.
+ *
+ * The index is column-bucketed: every column of the Container has a bucket which holds the floating BlockClusters whose
+ *      footprint (the columns spanned by their non-null blocks) covers that column. A collision query for a cell therefore
+ *      only has to look at the (few) BlockClusters in one bucket instead of every floating BlockCluster.
+ *
+ * Attributes:
+ *      buckets: one list of BlockClusters per column.
+ *      footprints: the [leftmost, rightmost] column each indexed BlockCluster was filed under (so it can be unfiled).
+ *
+ * NOTE: the index must be told whenever a BlockCluster moves sideways or rotates (ref. update()); descending does not
+ *       change the footprint.
+ */
+public class ClusterIndex {
+
+    private final ArrayList<ArrayList<BlockCluster>> buckets;
+    private final HashMap<BlockCluster, int[]> footprints;
+
+    public ClusterIndex() {
+        buckets = new ArrayList<>(GameConstants.COLUMNS);
+        for (int column = GameConstants.MINIMUM_X; column <= GameConstants.MAXIMUM_X; column++) {
+            buckets.add(new ArrayList<>(2));
+        }
+        footprints = new HashMap<>();
+    }
+
+    /**
+     * Files the BlockCluster under the columns it currently spans.
+     */
+    public void insert(BlockCluster blockCluster) {
+        int[] footprint = new int[2];
+        computeFootprint(blockCluster, footprint);
+        footprints.put(blockCluster, footprint);
+        for (int column = footprint[0]; column <= footprint[1]; column++) {
+            buckets.get(column).add(blockCluster);
+        }
+    }
+
+    /**
+     * Unfiles the BlockCluster. Does nothing if it was never indexed.
+     */
+    public void remove(BlockCluster blockCluster) {
+        int[] footprint = footprints.remove(blockCluster);
+        if (footprint == null) {
+            return;
+        }
+        for (int column = footprint[0]; column <= footprint[1]; column++) {
+            buckets.get(column).remove(blockCluster);
+        }
+    }
+
+    /**
+     * Re-files the BlockCluster if its footprint has changed (after a sideways movement or a rotation).
+     */
+    public void update(BlockCluster blockCluster) {
+        int[] footprint = footprints.get(blockCluster);
+        if (footprint == null) {
+            return;
+        }
+        int oldLeft = footprint[0];
+        int oldRight = footprint[1];
+        computeFootprint(blockCluster, footprint);
+        if (oldLeft == footprint[0] && oldRight == footprint[1]) {
+            return;
+        }
+        for (int column = oldLeft; column <= oldRight; column++) {
+            buckets.get(column).remove(blockCluster);
+        }
+        for (int column = footprint[0]; column <= footprint[1]; column++) {
+            buckets.get(column).add(blockCluster);
+        }
+    }
+
+    /**
+     * Narrow phase: checks the BlockClusters filed under the column.
+     *
+     * @param self the BlockCluster asking (is ignored since a BlockCluster cannot collide with itself).
+     * @return whether a floating BlockCluster other than self has a block at (x, y).
+     */
+    public boolean isOccupiedByOther(BlockCluster self, int x, int y) {
+        if (x < GameConstants.MINIMUM_X || x > GameConstants.MAXIMUM_X) {
+            return false;
+        }
+        ArrayList<BlockCluster> bucket = buckets.get(x);
+        for (int i = 0; i < bucket.size(); i++) {
+            BlockCluster other = bucket.get(i);
+            if (other == self) {
+                continue;
+            }
+            for (Block block : other.getAllBlocks()) {
+                if (block != null && block.getxCoord() == x && block.getyCoord() == y) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether any block of the BlockCluster overlaps a block of another indexed BlockCluster.
+     */
+    public boolean overlaps(BlockCluster blockCluster) {
+        for (Block block : blockCluster.getAllBlocks()) {
+            if (block != null && isOccupiedByOther(blockCluster, block.getxCoord(), block.getyCoord())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        for (ArrayList<BlockCluster> bucket : buckets) {
+            bucket.clear();
+        }
+        footprints.clear();
+    }
+
+    /**
+     * Writes the leftmost and rightmost column spanned by the non-null blocks into footprint (clamped to the board).
+     */
+    private static void computeFootprint(BlockCluster blockCluster, int[] footprint) {
+        int left = GameConstants.MAXIMUM_X;
+        int right = GameConstants.MINIMUM_X;
+        for (Block block : blockCluster.getAllBlocks()) {
+            if (block != null) {
+                left = Math.min(left, block.getxCoord());
+                right = Math.max(right, block.getxCoord());
+            }
+        }
+        footprint[0] = Math.max(GameConstants.MINIMUM_X, left);
+        footprint[1] = Math.min(GameConstants.MAXIMUM_X, right);
+    }
+}
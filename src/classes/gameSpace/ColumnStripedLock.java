@@ -0,0 +1,81 @@
+package classes.gameSpace;
+
+import classes.GameConstants;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locking scheme of the Container for the co-op mode, where several controllers move their own floating BlockClusters
+ *      concurrently (ref. ui.managers.CoopCoordinator).
+ *
+ * The columns of the Container are divided into stripes of GameConstants.LOCK_STRIPE_WIDTH columns each with its own
+ *      lock. A movement (or a movement check) only needs the stripes covering the columns it reads and writes, so two
+ *      controllers whose BlockClusters are far apart never contend.
+ *
+ * Anything that alters the settled blocks or the set of floating BlockClusters (amalgamation, row clearing, introducing a
+ *      BlockCluster) is a global operation and takes the global lock exclusively; column locking holds it shared.
+ *
+ * Attributes:
+ *      global: held shared (read) by lockColumns() and exclusively (write) by lockAll().
+ *      stripes: one lock per stripe of columns; always acquired in ascending order (hence free of deadlocks).
+ */
+public class ColumnStripedLock {
+
+    private final ReentrantReadWriteLock global;
+    private final ReentrantLock[] stripes;
+
+    public ColumnStripedLock() {
+        global = new ReentrantReadWriteLock();
+        stripes = new ReentrantLock[stripeOf(GameConstants.MAXIMUM_X) + 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the columns [from, to] (clamped to the game space).
+     * MUST be paired with unlockColumns() with the same arguments.
+     */
+    public void lockColumns(int from, int to) {
+        global.readLock().lock();
+        int last = stripeOf(clamp(to));
+        for (int stripe = stripeOf(clamp(from)); stripe <= last; stripe++) {
+            stripes[stripe].lock();
+        }
+    }
+
+    public void unlockColumns(int from, int to) {
+        int first = stripeOf(clamp(from));
+        for (int stripe = stripeOf(clamp(to)); stripe >= first; stripe--) {
+            stripes[stripe].unlock();
+        }
+        global.readLock().unlock();
+    }
+
+    /**
+     * Excludes every other controller (for global operations).
+     */
+    public void lockAll() {
+        global.writeLock().lock();
+    }
+
+    public void unlockAll() {
+        global.writeLock().unlock();
+    }
+
+    /**
+     * @return the number of stripes.
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    private static int stripeOf(int column) {
+        return (column - GameConstants.MINIMUM_X) / GameConstants.LOCK_STRIPE_WIDTH;
+    }
+
+    private static int clamp(int column) {
+        return Math.max(GameConstants.MINIMUM_X, Math.min(GameConstants.MAXIMUM_X, column));
+    }
+}
@@ -1,18 +1,25 @@
 package classes.gameSpace;
 
 import classes.GameConstants;
+import classes.events.GameEvent;
+import classes.events.GameEventPublisher;
 import classes.gameObjects.Block;
 import classes.gameObjects.compoundConstructs.BlockCluster;
-import ui.gui.GraphicCell;
+import metrics.GameOverEvent;
+import metrics.PieceLockedEvent;
+import metrics.RowsClearedEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Primary containing class;
- * Is composed of a grid of CellSpatialUnits which contains blocks (block can be null but this means is unoccupied; really just to mitigate against Type Casting
+ * Is composed of a grid of cells which contains blocks (ref. PersistentBoard; a cell without a block is unoccupied)
  *
  * Implements Singleton Pattern: none of the information required by the program is dynamic; everything is statically known:
  *          ref. classes.GameConstants
+ *          The shared instance (getInstance()) is the one of the GUI game; headless games (ref. server.GameSession) each
+ *          construct their own Container.
  *
  * 
  */
@@ -35,24 +42,71 @@ public class Container {
     private BlockCluster blockCluster;
 
     /**
-     * the format for cells is rows[column(s)] i.e. the outer array refers to the rows. The simple reason for this is in
-     *           Tetris a row is cleared and not a column.
+     * Multi-cluster mode (party/stress modes): ALL floating BlockClusters, including blockCluster above, are kept in
+     *      floatingClusters and filed in the broad-phase clusterIndex so that collisions between floating BlockClusters
+     *      are resolved against a handful of neighbours rather than every other floating BlockCluster.
+     *
+     * maxFloatingClusters is 1 by default i.e. the classic single "floating" object invariant described above holds
+     *      unless setMaxFloatingClusters() is invoked.
      */
-    private ArrayList<ArrayList<CellSpatialUnit>> cells;
+    private ArrayList<BlockCluster> floatingClusters;
+    private ClusterIndex clusterIndex;
+    private int maxFloatingClusters;
 
     /**
-     * private constructor.
+     * score: counts the number of rows cleared. Very rudimentary implementation; utilised in the gui for displaying.
+     *          volatile as well, since it is read by other threads than the game's (e.g. a spectator wall or the server's
+     *          frame writers).
+     * gameOver: signals for ending the game (set by hasSpaceDown()). keyword volatile is used since it is read by another
+     *          thread than the one that sets it (e.g. Swing's Event Dispatch Thread); without it the reader may never see the update.
      */
-    private Container() {
-        cells = new ArrayList<>();
-        for (int row = 0; row <= GameConstants.MAXIMUM_Y; row++) {
-            ArrayList<CellSpatialUnit> toAdd = new ArrayList<>();
-            for (int column = 0; column <= GameConstants.MAXIMUM_X; column++) {
-                toAdd.add(new CellSpatialUnit(column, row));
-            }
-            cells.add(toAdd);
-        }
+    private volatile int score;
+    private volatile boolean gameOver;
+
+    /**
+     * Rows removed by horizontalClear() since the last forgetClearedRows(), in the order they were removed. Only recorded
+     *      whilst recordClearedRows is set (ref. server.spectator.BoardDeltaEncoder, which forwards them to spectators).
+     */
+    private int[] clearedRows;
+    private int clearedRowCount;
+    private boolean recordClearedRows;
+
+    /**
+     * The settled blocks (and the score) as an immutable PersistentBoard: the one record of them, replaced by every
+     *      operation that settles or removes blocks. The format is (column, row) i.e. (x, y); only the rows up to the
+     *      occupied height take memory, so neither memory nor the construction cost depends on GameConstants.ROWS. The
+     *      movement, rotation and amalgamation checks read it, which is what lets them work on any version (ref. branch()),
+     *      and so does the GUI, which draws the floating BlockClusters over it.
+     */
+    private PersistentBoard version;
+
+    /**
+     * The typed events of this game (spawns, movements, locks, row clears, game over); ref. getEvents().
+     */
+    private final GameEventPublisher events;
+
+    /**
+     * Constructor. Is public so that headless games can own a Container each; the GUI uses getInstance().
+     */
+    public Container() {
+        version = PersistentBoard.EMPTY;
         blockCluster = null;
+        floatingClusters = new ArrayList<>();
+        clusterIndex = new ClusterIndex();
+        maxFloatingClusters = 1;
+        events = new GameEventPublisher();
+    }
+
+    /**
+     * A "what-if" Container on top of a version (e.g. for analysis or a bot's search tree): it shares the rows of the
+     *      version, costs next to nothing to make and is entirely independent of the Container the version came from.
+     *      Its own moves, locks and clears produce new versions (ref. getVersion()).
+     */
+    public static Container branch(PersistentBoard version) {
+        Container branch = new Container();
+        branch.version = version;
+        branch.score = version.getScore();
+        return branch;
     }
 
     /**
@@ -77,7 +131,7 @@ public class Container {
      * unit). gameObject is set to null and the positioning of the blocks is retained. Thereafter a sweep of the entire
      * board is effected which checks if any rows need clearing and the game board is updated accordingly.
      *
-     * DOES NOT UPDATE gameObject in any way whatsover (merely updates the occupancy of the CellSpatialUnits)
+     * DOES NOT UPDATE gameObject in any way whatsover (merely updates the occupancy of the cells)
      *
      * Cycle is as follows:
      *          BEFORE INVOCATION: it is ensured that the blockClusters present coordinates were correctly updated (by the Updater).
@@ -86,8 +140,29 @@ public class Container {
      *
      */
     public void checkAndUpdateGrid() {
+        checkAndUpdateGrid(blockCluster);
+    }
+
+    /**
+     * As above but for any of the floating BlockClusters (multi-cluster mode). Note that only the settled blocks cause
+     *      amalgamation: a BlockCluster resting on another floating BlockCluster merely waits for it to move.
+     */
+    public void checkAndUpdateGrid(BlockCluster cluster) {
+        if (needsAmalgamation(cluster)) {
+            amalgamate(cluster, cluster.getBlocksToCheck());
+            horizontalClear();
+        }
+    }
+
+    /**
+     * The (read-only) check half of checkAndUpdateGrid(). Is exposed so that the co-op mode can perform it whilst
+     *      holding only the column locks and escalate to the global lock for the amalgamation itself.
+     *
+     * @return whether the cluster vertically adjoins a settled block or the bottom of the game space.
+     */
+    public boolean needsAmalgamation(BlockCluster cluster) {
         // first iterate the block cluster and check if for each the cell below is unoccupied.
-        ArrayList<Block> blocksToCheck = blockCluster.getBlocksToCheck();
+        ArrayList<Block> blocksToCheck = cluster.getBlocksToCheck();
         boolean invokeAmalgamation = false;
         for (Block block: blocksToCheck) {
             if (block.getyCoord() < GameConstants.MINIMUM_Y) {
@@ -96,18 +171,13 @@ public class Container {
                 break; // nothing else needs to be done: they are outside the game space.
             } else if (block.getyCoord() == GameConstants.MAXIMUM_Y) {
                 invokeAmalgamation = true; // Guard is needed here (is implemented inside amalgamate) since the BlockCLuster may not have fully loaded into the gameSpace causing an ArrayOutOfBounds exception
-            } else if (cells.get(block.getyCoord() + 1).get(block.getxCoord()).isOccupied()) { // an array out of index bounds should not occur owing to the control flow above.
+            } else if (version.isOccupied(block.getxCoord(), block.getyCoord() + 1)) { // an array out of index bounds should not occur owing to the control flow above.
                 invokeAmalgamation = true;
             } else {
                 // nothing
             }
         }
-
-        if (invokeAmalgamation) {
-            amalgamate(blocksToCheck);
-            horizontalClear();
-        }
-
+        return invokeAmalgamation;
     }
 
     /**
@@ -116,100 +186,380 @@ public class Container {
      *
      */
     private void horizontalClear() {
-
-        // checking the uppermost row
-        boolean performInitial = true;
-        for (CellSpatialUnit cell: cells.get(0)) {
-            if (!cell.isOccupied()) {
-                performInitial = false;
-                break;
-            }
-        }
-        if (performInitial){
-            for (CellSpatialUnit cell : cells.get(0)) {
-                cell.setOccupant(null);
-            }
-            GameConstants.SCORE++;
-        }
-
-        // checking and updating all the other rows.
-        int counter = 1; // goes up to MAXIMUM_Y
-        while (counter <= GameConstants.MAXIMUM_Y) {
-            boolean perform = true;
-            for (CellSpatialUnit cell: cells.get(counter)) {
-                if (!cell.isOccupied()) {
-                    perform = false;
-                    break;
+        RowsClearedEvent event = new RowsClearedEvent();
+        event.begin();
+        StringBuilder rows = null; // only built whilst a recording wants the event.
+        int count = 0;
+        // rows above the highest materialised row are empty and cannot be full. Removing a row only moves the rows ABOVE
+        // it, so the rows below keep the indices they have in version (all full rows are removed at once, below).
+        for (int row = version.highestMaterialisedRow(); row <= GameConstants.MAXIMUM_Y; row++) {
+            if (version.isRowFull(row)) { // >>> i.e. row should be cleared
+                score++;
+                count++;
+                if (event.isEnabled()) {
+                    rows = (rows == null) ? new StringBuilder() : rows.append(',');
+                    rows.append(row);
                 }
-            }
-            if (perform) { // >>> i.e. row should be cleared
-                // traverse up. I believe this is O(n^2)
-                int reverseCounter;
-                for (reverseCounter = counter; reverseCounter > 0; reverseCounter--) {
-                    ArrayList<CellSpatialUnit> toReplace = cells.get(reverseCounter);
-                    ArrayList<CellSpatialUnit> toReplaceWith = cells.get(reverseCounter - 1);
-                    for (int i = 0; i<= GameConstants.MAXIMUM_X; i++) {
-                        toReplace.get(i).setOccupant(toReplaceWith.get(i).getOccupant());
-                        toReplaceWith.get(i).setOccupant(null);
+                if (recordClearedRows) {
+                    if (clearedRowCount == clearedRows.length) {
+                        clearedRows = Arrays.copyOf(clearedRows, clearedRows.length * 2);
                     }
+                    clearedRows[clearedRowCount++] = row;
                 }
-                GameConstants.SCORE++;
             }
-            counter++;
+        }
+        if (count > 0) {
+            version = version.withFullRowsCleared();
+        }
+        if (count > 0 && events.hasSubscribers()) {
+            events.publish(new GameEvent.RowsCleared(count, score));
+        }
+        event.end();
+        if (count > 0 && event.shouldCommit()) {
+            event.count = count;
+            event.rows = (rows == null) ? "" : rows.toString();
+            event.score = score;
+            event.commit();
         }
     }
 
     /**
      *
-     * @param blocks list of blocks to incorporate into the blocks already present inside the container. (Entails updating
-     *               the cellSpatialUnits to reflect occupancy and setting their references).
-     *  sets gameObject to null
+     * @param blocks list of blocks to incorporate into the blocks already present inside the container (a new version
+     *               with their cells occupied by their pieces).
+     *  sets gameObject to null (if cluster is the tracked blockCluster) and removes cluster from the floating clusters.
      *
      */
-    private void amalgamate(ArrayList<Block> blocks) {
+    private void amalgamate(BlockCluster cluster, ArrayList<Block> blocks) {
+        PieceLockedEvent event = new PieceLockedEvent();
+        event.begin();
+        int written = 0;
         for (Block block: blocks) {
             // no need to check for the Maximum boundary since classes Update and Container were intended to be reliable.
             if (block.getyCoord() >= GameConstants.MINIMUM_Y) { // since invoke amalgamation can be called on a block cluster that hasn't entirely entered the game space.
-                cells.get(block.getyCoord()).get(block.getxCoord()).setOccupant(block);
+                written++;
             }
         }
+        version = version.withBlocks(blocks);
+        floatingClusters.remove(cluster);
+        clusterIndex.remove(cluster);
+        if (cluster == blockCluster) {
+            blockCluster = null;
+        }
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.PieceLocked(cluster.getForm(), cluster.getBoxX(), cluster.getBoxY()));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.form = cluster.getForm().name();
+            event.column = cluster.getBoxX();
+            event.row = cluster.getBoxY();
+            event.blocks = written;
+            event.commit();
+        }
+    }
+
+    /**
+     * REQUIRES: gameObject is null
+     *
+     * @param blockCluster is the new GameObject that is to be added to the GameSpace i.e. this Container
+     */
+    public void setBlockCluster(BlockCluster blockCluster) {
+        if (this.blockCluster != null) {
+            throw new RuntimeException("Attempted to add an object to the game space when one was already present");
+        }
+        this.blockCluster = blockCluster;
+        floatingClusters.add(blockCluster);
+        clusterIndex.insert(blockCluster);
+        spawned(blockCluster);
+    }
+
+    /**
+     * Multi-cluster mode: introduces an additional floating BlockCluster (one which is not the tracked blockCluster).
+     *
+     * REQUIRES: there is room for another floating BlockCluster (ref. hasRoomForAnotherCluster()).
+     * @param cluster the new BlockCluster.
+     */
+    public void addBlockCluster(BlockCluster cluster) {
+        if (!hasRoomForAnotherCluster()) {
+            throw new RuntimeException("Attempted to add more than " + maxFloatingClusters + " floating objects to the game space");
+        }
+        floatingClusters.add(cluster);
+        clusterIndex.insert(cluster);
+        spawned(cluster);
+    }
+
+    private void spawned(BlockCluster cluster) {
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.PieceSpawned(cluster.getForm(), cluster.getOrientation(), cluster.getBoxX()));
+        }
+    }
+
+    /**
+     * @return whether the cluster can be introduced without overlapping another floating BlockCluster (new BlockClusters
+     *         all emerge above the game space and could otherwise spawn on top of one another).
+     */
+    public boolean spawnAreaClear(BlockCluster cluster) {
+        return !clusterIndex.overlaps(cluster);
+    }
+
+    /**
+     * Must be invoked after a floating BlockCluster has been moved sideways or rotated so that the broad-phase index
+     *      remains truthful. (Moving down does not alter the columns a BlockCluster spans, ref. clusterDescended().)
+     */
+    public void clusterMoved(BlockCluster cluster) {
+        clusterIndex.update(cluster);
+        clusterDescended(cluster);
+    }
+
+    /**
+     * Should be invoked after a floating BlockCluster has been moved down (only publishes a PieceMoved event).
+     */
+    public void clusterDescended(BlockCluster cluster) {
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.PieceMoved(cluster.getForm(), cluster.getOrientation(), cluster.getBoxX(), cluster.getBoxY()));
+        }
+    }
+
+    /**
+     * @return the publisher of this game's events (subscribe to follow the game rather than polling it).
+     */
+    public GameEventPublisher getEvents() {
+        return events;
+    }
+
+    /**
+     * Empties the game space for a new game: all settled blocks and all floating BlockClusters are discarded and the
+     *      score and gameOver are reset.
+     */
+    public void clear() {
+        version = PersistentBoard.EMPTY;
+        floatingClusters.clear();
+        clusterIndex.clear();
         blockCluster = null;
+        score = 0;
+        gameOver = false;
     }
 
     /**
-     * This function and the function below (unamalgamateGraphics) exist because we do not choose to consider cells occupied
-     *     when the "floating" blockCluster superposes them. They are invoked by classes in the GUI AND MUST BE IN TANDEM:
-     *     highly coupled methds.
+     * Starts (or stops) recording the rows removed by horizontalClear() (ref. getClearedRow()).
      */
-    public void amalgamateGraphics() {
-        ArrayList<Block> blocks = blockCluster.getBlocksToCheck();
-        for (Block block: blocks) {
-            if(block.getyCoord() >= GameConstants.MINIMUM_Y) {
-                cells.get(block.getyCoord()).get(block.getxCoord()).setOccupant(block);
+    public void setRecordClearedRows(boolean record) {
+        recordClearedRows = record;
+        clearedRowCount = 0;
+        if (record && clearedRows == null) {
+            clearedRows = new int[GameConstants.MAX_DIMENSION_OF_BLOCK_CLUSTER * 2];
+        }
+    }
+
+    /**
+     * @return the number of rows removed since the last forgetClearedRows() (whilst recording).
+     */
+    public int getClearedRowCount() {
+        return clearedRowCount;
+    }
+
+    /**
+     * @return the i-th row removed (rows are in the order of removal; each index refers to the board as it was at that moment).
+     */
+    public int getClearedRow(int i) {
+        return clearedRows[i];
+    }
+
+    public void forgetClearedRows() {
+        clearedRowCount = 0;
+    }
+
+    /**
+     * @return the uppermost row that may hold a settled block; all rows above it are empty (MAXIMUM_Y + 1 if the board
+     *         is empty).
+     */
+    public int highestMaterialisedRow() {
+        return version.highestMaterialisedRow();
+    }
+
+    /**
+     * @return the settled blocks and the score as they are now, as an immutable version (constant time: the Container
+     *         keeps it up to date). Keep the versions to undo (ref. restoreVersion()) or branch off them (ref. branch()).
+     */
+    public PersistentBoard getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the settled blocks and the score to the version (e.g. undo and redo); floating BlockClusters are discarded
+     *      and gameOver is reset (the Updater must be told, ref. Updater.resynchronise()).
+     */
+    public void restoreVersion(PersistentBoard version) {
+        floatingClusters.clear();
+        clusterIndex.clear();
+        blockCluster = null;
+        this.version = version;
+        score = version.getScore();
+        gameOver = false;
+    }
+
+    /**
+     * Copies the state of the game into the snapshot (ref. BoardSnapshot; only the tracked blockCluster is captured).
+     */
+    public void saveSnapshot(BoardSnapshot snapshot) {
+        snapshot.clearBlocks();
+        for (int y = version.highestMaterialisedRow(); y <= GameConstants.MAXIMUM_Y; y++) {
+            for (int x = version.nextOccupied(GameConstants.MINIMUM_X, y); x >= 0; x = version.nextOccupied(x + 1, y)) {
+                snapshot.setOccupied(x, y, version.getPiece(x, y));
             }
         }
+        if (blockCluster == null) {
+            snapshot.form = null;
+            snapshot.orientation = null;
+        } else {
+            snapshot.form = blockCluster.getForm();
+            snapshot.orientation = blockCluster.getOrientation();
+            snapshot.boxX = blockCluster.getBoxX();
+            snapshot.boxY = blockCluster.getBoxY();
+        }
+        snapshot.score = score;
+        snapshot.gameOver = gameOver;
     }
 
-    public void unamalgamateGraphics() {
-        ArrayList<Block> blocks = blockCluster.getBlocksToCheck();
-        for (Block block: blocks) {
-            if(block.getyCoord() >= GameConstants.MINIMUM_Y) {
-                cells.get(block.getyCoord()).get(block.getxCoord()).setOccupant(null);
+    /**
+     * Returns the game to the state held by the snapshot. Settled blocks (with their pieces) and the tracked blockCluster
+     *      are recreated (the Updater must be told, ref. Updater.resynchronise()); rows the snapshot holds as they are now
+     *      are kept, so a renderer only redraws the rows that differ.
+     */
+    public void restoreSnapshot(BoardSnapshot snapshot) {
+        floatingClusters.clear();
+        clusterIndex.clear();
+        blockCluster = null;
+        version = PersistentBoard.of(snapshot, snapshot.score, version);
+        if (snapshot.form != null) {
+            BlockCluster restored = new BlockCluster(snapshot.boxX, snapshot.orientation, snapshot.form);
+            // the box of a new BlockCluster does not start at x for every form (e.g. F1), hence both axes are corrected.
+            restored.moveSideways(snapshot.boxX - restored.getBoxX());
+            restored.moveDown(snapshot.boxY - restored.getBoxY());
+            setBlockCluster(restored);
+        }
+        score = snapshot.score;
+        gameOver = snapshot.gameOver;
+    }
+
+    /**
+     * Sets gameOver (and records a GameOverEvent the first time).
+     * @param column the column of the cell that blocked the way; -1 if the board overflowed.
+     */
+    private void setGameOver(int column) {
+        if (gameOver) {
+            return;
+        }
+        gameOver = true;
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.GameOver(score));
+        }
+        GameOverEvent event = new GameOverEvent();
+        if (event.shouldCommit()) {
+            event.score = score;
+            event.column = column;
+            event.commit();
+        }
+    }
+
+    /**
+     * Versus mode: inserts count garbage rows at the bottom of the board, full but for a hole at holeColumn. Everything
+     *      settled moves up; if a block is pushed out of the top, the game is over. A floating BlockCluster that the
+     *      garbage would overlap is lifted with it.
+     */
+    public void addGarbageRows(int count, int holeColumn) {
+        int highest = version.highestMaterialisedRow();
+        if (highest <= GameConstants.MAXIMUM_Y && highest - count < GameConstants.MINIMUM_Y) {
+            setGameOver(-1);
+        }
+        version = version.withGarbageRows(count, holeColumn);
+        for (BlockCluster cluster : floatingClusters) {
+            while (overlapsSettled(cluster)) {
+                cluster.moveDown(-1);
             }
         }
     }
 
+    /**
+     * @return whether any block of the cluster lies on a settled block.
+     */
+    private boolean overlapsSettled(BlockCluster cluster) {
+        for (Block block : cluster.getAllBlocks()) {
+            if (block != null && block.getyCoord() >= GameConstants.MINIMUM_Y && block.getyCoord() <= GameConstants.MAXIMUM_Y
+                    && version.isOccupied(block.getxCoord(), block.getyCoord())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     /**
-     * REQUIRES: gameObject is null
-     *
-     * @param blockCluster is the new GameObject that is to be added to the GameSpace i.e. this Container
+     * @return the number of rows cleared so far.
      */
-    public void setBlockCluster(BlockCluster blockCluster) {
-        if (this.blockCluster != null) {
-            throw new RuntimeException("Attempted to add an object to the game space when one was already present");
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return whether the game is over (ref. hasSpaceDown()).
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return whether the blockCluster rests on settled blocks before having fully emerged. It can never be amalgamated
+     *         (ref. needsAmalgamation()), hence the game cannot go on although it is not over; a player ends it with ESC.
+     *         Changes nothing: is for headless drivers that play until the end (e.g. telemetry.TelemetrySimulation).
+     */
+    public boolean isStalled() {
+        if (blockCluster == null) {
+            return false;
         }
-        this.blockCluster = blockCluster;
+        boolean partlyAbove = false;
+        boolean resting = false;
+        for (Block block : blockCluster.getAllBlocks()) {
+            if (block == null) {
+                continue;
+            }
+            int below = block.getyCoord() + 1;
+            if (block.getyCoord() < GameConstants.MINIMUM_Y) {
+                partlyAbove = true;
+            }
+            if (below >= GameConstants.MINIMUM_Y && below <= GameConstants.MAXIMUM_Y
+                    && version.isOccupied(block.getxCoord(), below)) {
+                resting = true;
+            }
+        }
+        return partlyAbove && resting;
+    }
+
+    /**
+     * Enables (n > 1) or disables (n == 1) the multi-cluster mode.
+     * @param n the number of BlockClusters that may float at once.
+     */
+    public void setMaxFloatingClusters(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("At least one floating object is required");
+        }
+        maxFloatingClusters = n;
+    }
+
+    /**
+     * @return whether another (additional) floating BlockCluster may be introduced. A slot is always reserved for the
+     *         tracked blockCluster.
+     */
+    public boolean hasRoomForAnotherCluster() {
+        int reserved = (blockCluster == null) ? 1 : 0;
+        return floatingClusters.size() + reserved < maxFloatingClusters;
+    }
+
+    /**
+     * @return the floating BlockClusters (including blockCluster). The list is owned by the Container: do not modify.
+     */
+    public ArrayList<BlockCluster> getFloatingClusters() {
+        return floatingClusters;
     }
 
 
@@ -226,7 +576,14 @@ public class Container {
      * @return whether there is space for the blockCluster to be moved left.
      */
     public boolean hasSpaceToLeft() {
-        ArrayList<Block> toCheck = blockCluster.getBlocksToCheck();
+        return hasSpaceToLeft(blockCluster);
+    }
+
+    /**
+     * As above but for any floating BlockCluster (multi-cluster mode).
+     */
+    public boolean hasSpaceToLeft(BlockCluster cluster) {
+        ArrayList<Block> toCheck = cluster.getBlocksToCheck();
         boolean isSpace = true;
 
         for (Block block: toCheck) {
@@ -235,7 +592,7 @@ public class Container {
             } else if (block.getxCoord() <= GameConstants.MINIMUM_X) {
                 return false;
             } else if (block.getxCoord() - 1 < GameConstants.MINIMUM_X || block.getyCoord() < GameConstants.MINIMUM_Y ||
-                    cells.get(block.getyCoord()).get(block.getxCoord() - 1).isOccupied()) {
+                    isBlocked(cluster, block.getxCoord() - 1, block.getyCoord())) {
                 return false;
             }
         }
@@ -248,7 +605,14 @@ public class Container {
      * @return whether there is space for the blockCluster to be moved right.
      */
     public boolean hasSpaceToRight() {
-        ArrayList<Block> toCheck = blockCluster.getBlocksToCheck();
+        return hasSpaceToRight(blockCluster);
+    }
+
+    /**
+     * As above but for any floating BlockCluster (multi-cluster mode).
+     */
+    public boolean hasSpaceToRight(BlockCluster cluster) {
+        ArrayList<Block> toCheck = cluster.getBlocksToCheck();
         boolean isSpace = true;
 
         for (Block block: toCheck) {
@@ -257,7 +621,7 @@ public class Container {
             } else if (block.getxCoord() >= GameConstants.MAXIMUM_X) {
                 return false;
             } else if (block.getxCoord() + 1 > GameConstants.MAXIMUM_X || block.getyCoord() < GameConstants.MINIMUM_Y ||
-                    cells.get(block.getyCoord()).get(block.getxCoord() + 1).isOccupied()) {
+                    isBlocked(cluster, block.getxCoord() + 1, block.getyCoord())) {
                 return false;
             }
         }
@@ -269,40 +633,85 @@ public class Container {
      *
      * @return whether there is space for the blockCluster to be moved down.
      *
-     * Also sets the GAME_OVER.
+     * Also sets gameOver.
      */
     public boolean hasSpaceDown() {
-        ArrayList<Block> toCheck = blockCluster.getBlocksToCheck();
+        return hasSpaceDown(blockCluster);
+    }
+
+    /**
+     * As above but for any floating BlockCluster (multi-cluster mode). Another floating BlockCluster below also
+     *      blocks the way (even above the game space).
+     */
+    public boolean hasSpaceDown(BlockCluster cluster) {
+        ArrayList<Block> toCheck = cluster.getBlocksToCheck();
         boolean isSpace = true;
 
 
 
         for (Block block: toCheck) {
-            if (block.getyCoord() + 1 == GameConstants.MINIMUM_Y && cells.get(0).get(block.getxCoord()).isOccupied()) {
-                GameConstants.GAME_OVER = true;
+            if (block.getyCoord() + 1 == GameConstants.MINIMUM_Y && version.isOccupied(block.getxCoord(), 0)) {
+                setGameOver(block.getxCoord());
                 return false;
             }
             if (block.getyCoord() + 1 >= GameConstants.MINIMUM_Y && block.getyCoord() + 1 <= GameConstants.MAXIMUM_Y
-                    && cells.get(block.getyCoord() + 1).get(block.getxCoord()).isOccupied()) {
+                    && isBlocked(cluster, block.getxCoord(), block.getyCoord() + 1)) {
                 isSpace = false;
             }
+            if (block.getyCoord() + 1 < GameConstants.MINIMUM_Y
+                    && clusterIndex.isOccupiedByOther(cluster, block.getxCoord(), block.getyCoord() + 1)) {
+                isSpace = false; // floating BlockClusters still emerging can obstruct one another.
+            }
         }
         return isSpace;
     }
 
 
+    /**
+     * How far the BlockCluster could move sideways in one step (used for an auto-repeat rate of 0, ref.
+     *      ui.managers.AutoShift). Follows the same rules as hasSpaceToLeft()/hasSpaceToRight(): a BlockCluster that
+     *      has not entirely entered the game space cannot move sideways at all.
+     *
+     * @param step -1 for left, 1 for right.
+     * @return the number of columns (0 if it cannot move).
+     */
+    public int freeColumns(BlockCluster cluster, int step) {
+        int free = GameConstants.COLUMNS;
+        for (Block block: cluster.getBlocksToCheck()) {
+            if (block.getyCoord() < GameConstants.MINIMUM_Y) {
+                return 0;
+            }
+            int columns = 0;
+            int x = block.getxCoord() + step;
+            while (columns < free && x >= GameConstants.MINIMUM_X && x <= GameConstants.MAXIMUM_X
+                    && !isBlocked(cluster, x, block.getyCoord())) {
+                columns++;
+                x += step;
+            }
+            free = columns;
+        }
+        return free;
+    }
+
     /**
      * Checks if the blockCluster being tracked can be rotated right.
      */
     public boolean rightRotationPossible() {
-        ArrayList<Block> blocks = blockCluster.getAllBlocks();
+        return rightRotationPossible(blockCluster);
+    }
+
+    /**
+     * As above but for any floating BlockCluster (multi-cluster mode).
+     */
+    public boolean rightRotationPossible(BlockCluster cluster) {
+        ArrayList<Block> blocks = cluster.getAllBlocks();
 
         Block block;
 
         block = blocks.get(0);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord()).get(block.getxCoord() + 2).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() + 2, block.getyCoord())) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -313,7 +722,7 @@ public class Container {
         block = blocks.get(1);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() + 1).get(block.getxCoord() + 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() + 1, block.getyCoord() + 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -324,7 +733,7 @@ public class Container {
         block = blocks.get(2);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() + 2).get(block.getxCoord()).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord(), block.getyCoord() + 2)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -335,7 +744,7 @@ public class Container {
         block = blocks.get(3);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() - 1).get(block.getxCoord() + 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() + 1, block.getyCoord() - 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -349,7 +758,7 @@ public class Container {
         block = blocks.get(5);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() + 1).get(block.getxCoord() - 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() - 1, block.getyCoord() + 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -360,7 +769,7 @@ public class Container {
         block = blocks.get(6);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() - 2).get(block.getxCoord()).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord(), block.getyCoord() - 2)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -371,7 +780,7 @@ public class Container {
         block = blocks.get(7);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() - 1).get(block.getxCoord() - 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() - 1, block.getyCoord() - 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -382,7 +791,7 @@ public class Container {
         block = blocks.get(8);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord()).get(block.getxCoord() - 2).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() - 2, block.getyCoord())) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -398,14 +807,21 @@ public class Container {
      * Checks if the blockCluster being tracked can be rotated left.
      */
     public boolean leftRotationPossible() {
-        ArrayList<Block> blocks = blockCluster.getAllBlocks();
+        return leftRotationPossible(blockCluster);
+    }
+
+    /**
+     * As above but for any floating BlockCluster (multi-cluster mode).
+     */
+    public boolean leftRotationPossible(BlockCluster cluster) {
+        ArrayList<Block> blocks = cluster.getAllBlocks();
 
         Block block;
 
         block = blocks.get(0);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() + 2).get(block.getxCoord()).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord(), block.getyCoord() + 2)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -416,7 +832,7 @@ public class Container {
         block = blocks.get(1);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() + 1).get(block.getxCoord() - 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() - 1, block.getyCoord() + 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -427,7 +843,7 @@ public class Container {
         block = blocks.get(2);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord()).get(block.getxCoord() - 2).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() - 2, block.getyCoord())) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -438,7 +854,7 @@ public class Container {
         block = blocks.get(3);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() + 1).get(block.getxCoord() + 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() + 1, block.getyCoord() + 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -452,7 +868,7 @@ public class Container {
         block = blocks.get(5);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() - 1).get(block.getxCoord() - 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() - 1, block.getyCoord() - 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -463,7 +879,7 @@ public class Container {
         block = blocks.get(6);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord()).get(block.getxCoord() + 2).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() + 2, block.getyCoord())) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -474,7 +890,7 @@ public class Container {
         block = blocks.get(7);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() - 1).get(block.getxCoord() + 1).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord() + 1, block.getyCoord() - 1)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -485,7 +901,7 @@ public class Container {
         block = blocks.get(8);
         if (block != null) {
             try {
-                if (cells.get(block.getyCoord() - 2).get(block.getxCoord()).isOccupied()) {
+                if (isBlocked(cluster, block.getxCoord(), block.getyCoord() - 2)) {
                     return false;
                 }
             } catch (IndexOutOfBoundsException arrayIndexOutOfBoundsException) {
@@ -501,9 +917,9 @@ public class Container {
      */
     public void print() {
         int count = 0;
-        for (ArrayList<CellSpatialUnit> row: cells) {
-            for (CellSpatialUnit cell: row) {
-                if (cell.isOccupied()) {
+        for (int row = GameConstants.MINIMUM_Y; row <= GameConstants.MAXIMUM_Y; row++) {
+            for (int column = GameConstants.MINIMUM_X; column <= GameConstants.MAXIMUM_X; column++) {
+                if (version.isOccupied(column, row)) {
                     System.out.print(".");
                     count++;
                 } else {
@@ -516,27 +932,34 @@ public class Container {
     }
 
     /**
-     * For Testing
+     * @return whether the cell at the given column (x) and row (y) is occupied. Used by the GUI (GraphicCell).
      */
-    public BlockCluster getBlockCluster() {
-        return blockCluster;
+    public boolean isOccupied(int x, int y) {
+        return version.isOccupied(x, y);
     }
 
     /**
-     * For the GUI.
-     * Introduces a new dependency to the GUI class GraphicCell.
-     * Populates the provided nested array with GraphicCells with relations to CellSpatialUnits Contained herein.
+     * @return the piece id of the occupant of the cell (ref. Block.getPiece()); Block.NO_PIECE if there is none.
+     *         Used by the GUI (GraphicCell) for colouring.
+     */
+    public byte getPiece(int x, int y) {
+        return version.getPiece(x, y);
+    }
+
+    /**
+     * Narrow-phase collision check used by the movement checks above: a cell is blocked for cluster if it is occupied
+     *      (settled) or if another floating BlockCluster has a block there.
      *
-     * Was introduced for convenience but can be extended: a preset tetris board may be constructed.
+     * Throws an IndexOutOfBoundsException if (x, y) lies outside of the game space (the rotation checks rely on this).
      */
+    private boolean isBlocked(BlockCluster cluster, int x, int y) {
+        return version.isOccupied(x, y) || clusterIndex.isOccupiedByOther(cluster, x, y);
+    }
 
-    public void populateGraphicGrid(ArrayList<ArrayList<GraphicCell>> grid) {
-        for (ArrayList<CellSpatialUnit> row: cells) {
-            ArrayList<GraphicCell> graphicRow = new ArrayList<>();
-            for (CellSpatialUnit cell: row) {
-                graphicRow.add(new GraphicCell(cell));
-            }
-            grid.add(graphicRow);
-        }
+    /**
+     * For Testing
+     */
+    public BlockCluster getBlockCluster() {
+        return blockCluster;
     }
 }
@@ -0,0 +1,30 @@
+package classes.gameSpace;
+
+/**
+ * Read-only view of the settled blocks of a board, which is all the movement and rotation checks of the Container need
+ *      (implemented by the immutable PersistentBoard and by BoardSnapshot, from which a PersistentBoard is rebuilt).
+ *
+ * NOTE: coordinates outside of the board produce an IndexOutOfBoundsException.
+ */
+public interface Occupancy {
+
+    /**
+     * @return whether the cell at the given column (x) and row (y) is occupied.
+     */
+    boolean isOccupied(int x, int y);
+
+    /**
+     * @return whether every cell of the row is occupied.
+     */
+    boolean isRowFull(int y);
+
+    /**
+     * @return the piece id of the occupant of the cell (ref. Block.getPiece()); Block.NO_PIECE if it is unoccupied.
+     */
+    byte getPiece(int x, int y);
+
+    /**
+     * @return the uppermost row that may hold an occupant (MAXIMUM_Y + 1 if the board is empty).
+     */
+    int highestMaterialisedRow();
+}
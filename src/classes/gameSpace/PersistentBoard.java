@@ -0,0 +1,402 @@
+package classes.gameSpace;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable version of the settled blocks (and the score) of a Container. Locking blocks or clearing rows does not
+ *      alter a version but produces a new one which SHARES every row it did not touch with its predecessor (row-level
+ *      copy-on-write), so keeping every version of a game (unlimited undo/redo) or branching off "what-if" versions
+ *      (analysis, bot search trees) costs memory proportional to the rows changed rather than a copy of the grid each.
+ *
+ * Rows are grouped into chunks of GameConstants.CHUNK_ROWS rows, indexed from the BOTTOM of the board (chunk 0 holds the
+ *      lowest CHUNK_ROWS rows) since that is where blocks settle, and only the chunks up to the occupied height exist:
+ *      the rows above are empty and take no memory. Hence a version costs a spine of (occupied height / CHUNK_ROWS)
+ *      references plus the chunks and rows that changed, and no operation visits the empty rows above, however tall
+ *      the board (ROWS) is.
+ *
+ * The Container holds its settled blocks as the current version (ref. Container.getVersion()) and answers its queries
+ *      (hasSpaceDown() etc.) from it; Container.restoreVersion() goes back to any version and Container.branch() makes a
+ *      separate Container on top of one.
+ *
+ * Attributes:
+ *      chunks: chunks[c][o] is the row MAXIMUM_Y - (c * CHUNK_ROWS + o); a row is a bitset (a long per 64 columns, so the
+ *          board may be of any width) plus the piece id of every cell (ref. Block.getPiece(), for colouring). Neither
+ *          chunks nor rows are modified once built (hence may be shared by any number of versions).
+ *      score: the number of rows cleared up to this version.
+ *      highest: the uppermost occupied row (MAXIMUM_Y + 1 if there is none); chunks reaches exactly up to its chunk.
+ *
+ * NOTE: coordinates outside of the board produce an IndexOutOfBoundsException.
+ */
+public final class PersistentBoard implements Occupancy {
+
+    /**
+     * The board without a single block.
+     */
+    public final static PersistentBoard EMPTY;
+
+    /**
+     * The longs per row.
+     */
+    private final static int WORDS = (GameConstants.COLUMNS + Long.SIZE - 1) / Long.SIZE;
+
+    private final static Row EMPTY_ROW = new Row(new long[WORDS], 0, new byte[GameConstants.COLUMNS]);
+
+    /**
+     * Stands in for a chunk below the occupied height without a single block (never modified: ref. writableChunk()).
+     */
+    private final static Row[] EMPTY_CHUNK = emptyChunk();
+
+    static {
+        EMPTY = new PersistentBoard(new Row[0][], 0, GameConstants.MAXIMUM_Y + 1);
+    }
+
+    private final Row[][] chunks;
+    private final int score;
+    private final int highest;
+
+    /**
+     * A row as a bitset (bit x % 64 of words[x / 64] is set if column x is occupied), the number of occupied cells and
+     *      the piece ids of its cells (Block.NO_PIECE where unoccupied).
+     */
+    private static final class Row {
+        private final long[] words;
+        private final int count;
+        private final byte[] pieces;
+
+        private Row(long[] words, int count, byte[] pieces) {
+            this.words = words;
+            this.count = count;
+            this.pieces = pieces;
+        }
+
+        private boolean isOccupied(int x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        private boolean isFull() {
+            return count == GameConstants.COLUMNS;
+        }
+
+        /**
+         * @return a copy with column x occupied by the piece.
+         */
+        private Row with(int x, byte piece) {
+            long[] newWords = words.clone();
+            newWords[x >>> 6] |= 1L << x;
+            byte[] newPieces = pieces.clone();
+            newPieces[x] = piece;
+            return new Row(newWords, isOccupied(x) ? count : count + 1, newPieces);
+        }
+    }
+
+    private PersistentBoard(Row[][] chunks, int score, int highest) {
+        this.chunks = chunks;
+        this.score = score;
+        this.highest = highest;
+    }
+
+    /**
+     * @return a version holding the settled blocks of the occupancy (e.g. a BoardSnapshot) with the given score.
+     */
+    public static PersistentBoard of(Occupancy occupancy, int score) {
+        return of(occupancy, score, EMPTY);
+    }
+
+    /**
+     * As above, but every row equal to the same row of basis is basis's very row (ref. sharesRow()), e.g. so that
+     *      restoring a snapshot of the current board does not make every row look changed.
+     */
+    public static PersistentBoard of(Occupancy occupancy, int score, PersistentBoard basis) {
+        int top = occupancy.highestMaterialisedRow();
+        Row[][] chunks = new Row[chunksFor(GameConstants.MAXIMUM_Y + 1 - top)][];
+        int highest = GameConstants.MAXIMUM_Y + 1;
+        for (int y = GameConstants.MAXIMUM_Y; y >= top; y--) {
+            long[] words = new long[WORDS];
+            int count = 0;
+            byte[] pieces = new byte[GameConstants.COLUMNS];
+            for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+                if (occupancy.isOccupied(x, y)) {
+                    words[x >>> 6] |= 1L << x;
+                    count++;
+                    pieces[x] = occupancy.getPiece(x, y);
+                }
+            }
+            if (count != 0) {
+                Row row = basis.rowAt(indexOf(y));
+                boolean same = row.count == count && Arrays.equals(row.words, words) && Arrays.equals(row.pieces, pieces);
+                put(chunks, indexOf(y), same ? row : new Row(words, count, pieces));
+                highest = y;
+            }
+        }
+        return new PersistentBoard(trimmed(filled(chunks), highest), score, highest);
+    }
+
+    /**
+     * @return a version with the blocks (those inside the game space) settled; only the rows they lie in (and the chunks
+     *         holding them) are copied.
+     */
+    public PersistentBoard withBlocks(List<Block> blocks) {
+        Row[][] copy = null;
+        int newHighest = highest;
+        for (Block block : blocks) {
+            int y = block.getyCoord();
+            if (y < GameConstants.MINIMUM_Y) {
+                continue; // not yet inside the game space (ref. Container.amalgamate()).
+            }
+            checkBounds(block.getxCoord(), y);
+            int index = indexOf(y);
+            int chunk = index / GameConstants.CHUNK_ROWS;
+            if (copy == null) {
+                copy = Arrays.copyOf(chunks, Math.max(chunks.length, chunk + 1));
+            } else if (chunk >= copy.length) {
+                copy = Arrays.copyOf(copy, chunk + 1);
+            }
+            Row[] rows = writableChunk(copy, chunk);
+            int offset = index % GameConstants.CHUNK_ROWS;
+            rows[offset] = rows[offset].with(block.getxCoord(), block.getPiece());
+            newHighest = Math.min(newHighest, y);
+        }
+        return (copy == null) ? this : new PersistentBoard(filled(copy), score, newHighest);
+    }
+
+    /**
+     * @return a version with every full row removed (the rows above move down; the score goes up by one per row), or this
+     *         version if no row is full. Only the occupied rows are visited and only references are moved: no row is
+     *         copied, and the chunks below the lowest full row are shared.
+     */
+    public PersistentBoard withFullRowsCleared() {
+        int height = GameConstants.MAXIMUM_Y + 1 - highest;
+        int full = 0;
+        int lowest = -1;
+        for (int index = 0; index < height; index++) {
+            if (rowAt(index).isFull()) {
+                full++;
+                lowest = (lowest < 0) ? index : lowest;
+            }
+        }
+        if (full == 0) {
+            return this;
+        }
+        int first = lowest / GameConstants.CHUNK_ROWS;
+        Row[][] copy = new Row[chunksFor(height - full)][];
+        System.arraycopy(chunks, 0, copy, 0, first);
+        int target = first * GameConstants.CHUNK_ROWS;
+        int newHighest = GameConstants.MAXIMUM_Y + 1;
+        for (int index = target; index < height; index++) {
+            Row row = rowAt(index);
+            if (!row.isFull()) {
+                put(copy, target, row);
+                if (row.count != 0) {
+                    newHighest = GameConstants.MAXIMUM_Y - target;
+                }
+                target++;
+            }
+        }
+        for (int index = first * GameConstants.CHUNK_ROWS - 1; index >= 0 && newHighest > GameConstants.MAXIMUM_Y; index--) {
+            if (rowAt(index).count != 0) {
+                newHighest = GameConstants.MAXIMUM_Y - index; // every row from the lowest full one up was emptied.
+            }
+        }
+        return new PersistentBoard(trimmed(filled(copy), newHighest), score + full, newHighest);
+    }
+
+    /**
+     * Versus mode: inserts count rows at the bottom, full but for a hole at holeColumn (of plain pieces). Every row moves
+     *      up by count; the rows moved beyond the top are lost (ref. Container.addGarbageRows()).
+     * @return the new version.
+     */
+    public PersistentBoard withGarbageRows(int count, int holeColumn) {
+        count = Math.min(count, GameConstants.ROWS);
+        if (count <= 0) {
+            return this;
+        }
+        long[] words = new long[WORDS];
+        byte[] pieces = new byte[GameConstants.COLUMNS];
+        int occupied = 0;
+        for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+            if (x != holeColumn) {
+                words[x >>> 6] |= 1L << x;
+                pieces[x] = Block.PLAIN_PIECE;
+                occupied++;
+            }
+        }
+        Row garbage = new Row(words, occupied, pieces);
+        int height = Math.min(GameConstants.ROWS, GameConstants.MAXIMUM_Y + 1 - highest + count);
+        Row[][] copy = new Row[chunksFor(height)][];
+        for (int index = 0; index < height; index++) {
+            put(copy, index, (index < count) ? garbage : rowAt(index - count));
+        }
+        int newHighest = GameConstants.MAXIMUM_Y + 1 - height;
+        while (newHighest <= GameConstants.MAXIMUM_Y && rowOf(copy, indexOf(newHighest)).count == 0) {
+            newHighest++; // a garbage row without a single block (a board of one column).
+        }
+        return new PersistentBoard(trimmed(filled(copy), newHighest), score, newHighest);
+    }
+
+    @Override
+    public boolean isOccupied(int x, int y) {
+        checkBounds(x, y);
+        return rowAt(indexOf(y)).isOccupied(x);
+    }
+
+    @Override
+    public boolean isRowFull(int y) {
+        checkBounds(GameConstants.MINIMUM_X, y);
+        return rowAt(indexOf(y)).isFull();
+    }
+
+    /**
+     * @return the uppermost occupied row (MAXIMUM_Y + 1 if the board is empty); exact, i.e. that row does hold a block.
+     */
+    @Override
+    public int highestMaterialisedRow() {
+        return highest;
+    }
+
+    @Override
+    public byte getPiece(int x, int y) {
+        checkBounds(x, y);
+        return rowAt(indexOf(y)).pieces[x];
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Iterates the occupied cells of row y (as BitSet.nextSetBit() does), a word of 64 columns at a time:
+     *      for (int x = board.nextOccupied(MINIMUM_X, y); x >= 0; x = board.nextOccupied(x + 1, y)) { ... }
+     * @return the first occupied column from x on; -1 if there is none.
+     */
+    public int nextOccupied(int x, int y) {
+        checkBounds(GameConstants.MINIMUM_X, y);
+        if (x > GameConstants.MAXIMUM_X) {
+            return -1;
+        }
+        long[] words = rowAt(indexOf(y)).words;
+        int index = x >>> 6;
+        long word = words[index] & (-1L << x);
+        while (word == 0) {
+            if (++index == WORDS) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return whether row y of this version is the very row of the other version (hence certainly unchanged; e.g. a
+     *         renderer need not redraw it).
+     */
+    public boolean sharesRow(PersistentBoard other, int y) {
+        checkBounds(GameConstants.MINIMUM_X, y);
+        return rowAt(indexOf(y)) == other.rowAt(indexOf(y));
+    }
+
+    /**
+     * For Testing.
+     * @return the number of rows this version shares (holds the very same row of) with the other version.
+     */
+    public int sharedRowsWith(PersistentBoard other) {
+        int shared = 0;
+        for (int index = 0; index < GameConstants.MAXIMUM_Y + 1 - highest; index++) {
+            Row row = rowAt(index);
+            if (row == other.rowAt(index) && row != EMPTY_ROW) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * For Testing.
+     * @return the number of chunks of rows this version holds (they reach up to the occupied height).
+     */
+    public int materialisedChunks() {
+        return chunks.length;
+    }
+
+    /**
+     * @param index of the row counted from the bottom (ref. indexOf()).
+     */
+    private Row rowAt(int index) {
+        return rowOf(chunks, index);
+    }
+
+    private static Row rowOf(Row[][] chunks, int index) {
+        int chunk = index / GameConstants.CHUNK_ROWS;
+        return (chunk < chunks.length) ? chunks[chunk][index % GameConstants.CHUNK_ROWS] : EMPTY_ROW;
+    }
+
+    /**
+     * @return the index of row y counted from the bottom of the board (0 is MAXIMUM_Y).
+     */
+    private static int indexOf(int y) {
+        return GameConstants.MAXIMUM_Y - y;
+    }
+
+    private static int chunksFor(int height) {
+        return (height + GameConstants.CHUNK_ROWS - 1) / GameConstants.CHUNK_ROWS;
+    }
+
+    /**
+     * Sets a row of a spine being built, making its (new) chunk if need be.
+     */
+    private static void put(Row[][] chunks, int index, Row row) {
+        int chunk = index / GameConstants.CHUNK_ROWS;
+        if (chunks[chunk] == null) {
+            chunks[chunk] = emptyChunk();
+        }
+        chunks[chunk][index % GameConstants.CHUNK_ROWS] = row;
+    }
+
+    /**
+     * @return the chunk of a copied spine, itself copied unless it was made for this copy (i.e. is not shared yet).
+     */
+    private Row[] writableChunk(Row[][] copy, int chunk) {
+        if (copy[chunk] == null) {
+            copy[chunk] = emptyChunk();
+        } else if (chunk < chunks.length && copy[chunk] == chunks[chunk]) {
+            copy[chunk] = copy[chunk].clone();
+        }
+        return copy[chunk];
+    }
+
+    private static Row[] emptyChunk() {
+        Row[] rows = new Row[GameConstants.CHUNK_ROWS];
+        Arrays.fill(rows, EMPTY_ROW);
+        return rows;
+    }
+
+    /**
+     * @return the spine with every chunk that was never made (a run of empty rows below the occupied height) pointing at
+     *         EMPTY_CHUNK.
+     */
+    private static Row[][] filled(Row[][] chunks) {
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            if (chunks[chunk] == null) {
+                chunks[chunk] = EMPTY_CHUNK;
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the spine without the chunks above the one of row highest.
+     */
+    private static Row[][] trimmed(Row[][] chunks, int highest) {
+        int length = chunksFor(GameConstants.MAXIMUM_Y + 1 - highest);
+        return (length == chunks.length) ? chunks : Arrays.copyOf(chunks, length);
+    }
+
+    private static void checkBounds(int x, int y) {
+        if (x < GameConstants.MINIMUM_X || x > GameConstants.MAXIMUM_X || y < GameConstants.MINIMUM_Y || y > GameConstants.MAXIMUM_Y) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") lies outside of the game space");
+        }
+    }
+}
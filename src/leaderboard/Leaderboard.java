@@ -0,0 +1,274 @@
+package leaderboard;
+
+import classes.GameConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * High scores, kept in an append-only file that is memory-mapped in regions of GameConstants.LEADERBOARD_REGION_ENTRIES
+ *      entries (the file grows a region at a time).
+ *
+ * Entries (big-endian, ENTRY_LENGTH bytes): int score | long epoch milliseconds | NAME_LENGTH bytes of name (US-ASCII,
+ *      zero-padded) | int seal. The seal (a hash of the rest, never 0) is written last: an entry whose seal does not match
+ *      was never completed (the process died whilst writing it) and is ignored when the file is opened again. Since the
+ *      mapped pages belong to the operating system, whatever was written survives the JVM crashing; force() also gets
+ *      it onto the disk.
+ *
+ * Any number of threads may submit() at once: each claims the next entry number with an atomic increment and writes
+ *      its own entry (absolute puts, i.e. disjoint bytes of the shared buffers). Queries never touch the file but for
+ *      the names of the entries they return; they are answered from two concurrent skip lists:
+ *      ranking: entry keys ordered by score (descending), then by entry number; top(k) walks its first k keys.
+ *      scores: the number of entries per score (descending); rankOf(score) sums the counts of the higher scores, i.e.
+ *          costs one step per DISTINCT score rather than per entry.
+ *
+ * Attributes:
+ *      regions: the mapped regions; only ever grows (under growLock).
+ *      next: the number of the next entry to be claimed.
+ */
+public class Leaderboard implements AutoCloseable {
+
+    public final static int NAME_LENGTH = 16;
+    public final static int ENTRY_LENGTH = 4 + 8 + NAME_LENGTH + 4;
+
+    private static Leaderboard instance;
+
+    private final FileChannel channel;
+    private volatile MappedByteBuffer[] regions;
+    private final ReentrantLock growLock;
+    private final AtomicInteger next;
+
+    private final ConcurrentSkipListSet<Long> ranking;
+    private final ConcurrentSkipListMap<Integer, LongAdder> scores;
+    private final LongAdder size;
+
+    /**
+     * One entry, as returned by top().
+     */
+    public record Entry(int rank, int score, long epochMillis, String name) {
+    }
+
+    /**
+     * Opens (creating it if need be) the leaderboard file and indexes the entries it holds.
+     */
+    public Leaderboard(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        regions = new MappedByteBuffer[0];
+        growLock = new ReentrantLock();
+        ranking = new ConcurrentSkipListSet<>();
+        scores = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+        size = new LongAdder();
+
+        long regionLength = (long) GameConstants.LEADERBOARD_REGION_ENTRIES * ENTRY_LENGTH;
+        int existingRegions = (int) ((channel.size() + regionLength - 1) / regionLength);
+        ensureRegion(Math.max(0, existingRegions - 1));
+
+        // a torn entry may be followed by complete ones (written concurrently), hence every entry is looked at.
+        int entries = regions.length * GameConstants.LEADERBOARD_REGION_ENTRIES;
+        int end = 0;
+        for (int number = 0; number < entries; number++) {
+            MappedByteBuffer region = regionOf(number);
+            int offset = offsetOf(number);
+            if (region.getInt(offset + 28) == sealOf(region.getInt(offset), region.getLong(offset + 4), region.getLong(offset + 12), region.getLong(offset + 20))) {
+                index(number, region.getInt(offset));
+                end = number + 1;
+            }
+        }
+        next = new AtomicInteger(end);
+    }
+
+    /**
+     * @return the leaderboard of this machine (the file named by the system property tetris.leaderboard, by default
+     *         leaderboard.bin), opened on first use.
+     */
+    public static synchronized Leaderboard getInstance() {
+        if (instance == null) {
+            try {
+                instance = new Leaderboard(Path.of(System.getProperty("tetris.leaderboard", "leaderboard.bin")));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Appends a result. Safe to call from any number of threads at once.
+     * @param name truncated to NAME_LENGTH characters (non-ASCII characters become '?').
+     * @return the rank of the score (1 is the best; ties share a rank).
+     */
+    public int submit(String name, int score) {
+        int number = next.getAndIncrement();
+        if (number < 0) {
+            throw new IllegalStateException("The leaderboard is full");
+        }
+        MappedByteBuffer region = ensureRegion(number / GameConstants.LEADERBOARD_REGION_ENTRIES);
+        int offset = offsetOf(number);
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        long high = packName(bytes, 0);
+        long low = packName(bytes, 8);
+        long millis = System.currentTimeMillis();
+        region.putInt(offset, score);
+        region.putLong(offset + 4, millis);
+        region.putLong(offset + 12, high);
+        region.putLong(offset + 20, low);
+        region.putInt(offset + 28, sealOf(score, millis, high, low)); // completes the entry.
+        index(number, score);
+        return rankOf(score);
+    }
+
+    /**
+     * @return the best k entries, best first (equal scores in the order they were submitted).
+     */
+    public List<Entry> top(int k) {
+        ArrayList<Entry> entries = new ArrayList<>(k);
+        int rank = 0;
+        int previousScore = Integer.MIN_VALUE;
+        for (long key : ranking) {
+            if (entries.size() == k) {
+                break;
+            }
+            int number = (int) key;
+            MappedByteBuffer region = regionOf(number);
+            int offset = offsetOf(number);
+            int score = region.getInt(offset);
+            rank = (score == previousScore) ? rank : entries.size() + 1;
+            previousScore = score;
+            entries.add(new Entry(rank, score, region.getLong(offset + 4), nameOf(region, offset)));
+        }
+        return entries;
+    }
+
+    /**
+     * @return 1 + the number of entries with a higher score (the rank a result of that score has or would have).
+     */
+    public int rankOf(int score) {
+        long higher = 0;
+        for (Map.Entry<Integer, LongAdder> entry : scores.headMap(score, false).entrySet()) {
+            higher += entry.getValue().sum();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, higher + 1);
+    }
+
+    /**
+     * @return the number of entries.
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Writes the entries submitted so far through to the disk (they already survive the process dying without this).
+     */
+    public void force() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void index(int number, int score) {
+        // Integer.MAX_VALUE - score sorts higher scores first; number breaks ties (and makes every key unique).
+        ranking.add(((long) (Integer.MAX_VALUE - score) << 32) | number);
+        scores.computeIfAbsent(score, s -> new LongAdder()).increment();
+        size.increment();
+    }
+
+    /**
+     * @return the region holding entry numbers [index * LEADERBOARD_REGION_ENTRIES, ...), mapping it (and every region
+     *         before it) first if need be.
+     */
+    private MappedByteBuffer ensureRegion(int index) {
+        MappedByteBuffer[] current = regions;
+        if (index < current.length) {
+            return current[index];
+        }
+        growLock.lock();
+        try {
+            current = regions;
+            if (index >= current.length) {
+                MappedByteBuffer[] grown = new MappedByteBuffer[index + 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                long regionLength = (long) GameConstants.LEADERBOARD_REGION_ENTRIES * ENTRY_LENGTH;
+                for (int i = current.length; i <= index; i++) {
+                    grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * regionLength, regionLength); // extends the file.
+                }
+                regions = grown;
+                current = grown;
+            }
+            return current[index];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private MappedByteBuffer regionOf(int number) {
+        return regions[number / GameConstants.LEADERBOARD_REGION_ENTRIES];
+    }
+
+    private static int offsetOf(int number) {
+        return (number % GameConstants.LEADERBOARD_REGION_ENTRIES) * ENTRY_LENGTH;
+    }
+
+    private static int sealOf(int score, long millis, long high, long low) {
+        long hash = score * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ millis) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ high) * 0x165667B19E3779F9L;
+        hash = (hash ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) | 1; // a zeroed (never written) entry has a seal of 0, which never matches.
+    }
+
+    /**
+     * @return bytes [from, from + 8) of the name as a long (zero-padded).
+     */
+    private static long packName(byte[] bytes, int from) {
+        long packed = 0;
+        for (int i = from; i < from + 8; i++) {
+            packed = (packed << 8) | ((i < bytes.length && i < NAME_LENGTH) ? (bytes[i] & 0xFF) : 0);
+        }
+        return packed;
+    }
+
+    private static String nameOf(MappedByteBuffer region, int offset) {
+        byte[] bytes = new byte[NAME_LENGTH];
+        int length = 0;
+        while (length < NAME_LENGTH && (bytes[length] = region.get(offset + 12 + length)) != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Usage: Leaderboard [file] [k]      (prints the top k, 10 by default)
+     */
+    public static void main(String[] args) throws IOException {
+        try (Leaderboard leaderboard = new Leaderboard(Path.of((args.length > 0) ? args[0] : "leaderboard.bin"))) {
+            int k = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+            System.out.println(leaderboard.size() + " entries");
+            for (Entry entry : leaderboard.top(k)) {
+                System.out.printf("%6d %8d  %-16s %tF %<tT%n", entry.rank(), entry.score(), entry.name(), entry.epochMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package main;
+
+import classes.GameConstants;
+import classes.gameSpace.Container;
+import metrics.TickProbe;
+import ui.managers.Generator;
+import ui.managers.PossibleUserInput;
+import ui.managers.Updater;
+
+import java.util.Random;
+
+/**
+ * Headless allocation assertion: plays a deterministic game (a seeded Generator and a seeded bot), discards a warm-up
+ *      (so that the JIT has compiled and escape-analysed the hot paths) and then fails if the mean number of bytes the
+ *      game thread allocates per tick exceeds the budget. Is meant for builds: allocation regressions in BlockCluster or
+ *      Container show up here before they show up as GC pauses.
+ *
+ * A tick is one gravity tick plus one user action, the same work as the GUI game does per GRAVITY_DELAY for a player
+ *      pressing a key every tick. Whenever the game is over or stalled (ref. Container.isStalled()) the board is emptied
+ *      and play resumes, so that the budget covers spawning, locking and clearing rather than a frozen board.
+ *
+ * Usage: AllocationBudgetCheck [bytesPerTick] [ticks] [seed]; exits with status 1 if the budget is exceeded.
+ */
+public class AllocationBudgetCheck {
+
+    public static void main(String[] args) {
+        long budget = (args.length > 0) ? Long.parseLong(args[0]) : GameConstants.ALLOCATION_BUDGET_PER_TICK;
+        int ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 200_000;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 42;
+
+        TickProbe probe = new TickProbe();
+        if (!probe.isAllocationSupported()) {
+            System.out.println("This JVM does not account allocations per thread; nothing to check.");
+            return;
+        }
+
+        Container container = new Container();
+        Updater updater = new Updater(container, new Generator(seed));
+        Random bot = new Random(seed);
+
+        play(container, updater, bot, probe, ticks / 2); // warm-up.
+        probe.resetTotals();
+        long gcsBefore = probe.gcCount();
+        play(container, updater, bot, probe, ticks);
+
+        double perTick = probe.getMeanBytesPerTick();
+        System.out.printf("%.1f bytes/tick over %d ticks (budget %d), %d GCs%n", perTick, ticks, budget, probe.gcCount() - gcsBefore);
+        if (perTick > budget) {
+            System.out.println("Allocation budget EXCEEDED.");
+            System.exit(1);
+        }
+    }
+
+    private static void play(Container container, Updater updater, Random bot, TickProbe probe, int ticks) {
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+        for (int i = 0; i < ticks; i++) {
+            PossibleUserInput input = inputs[bot.nextInt(inputs.length)];
+            probe.beginTick();
+            updater.updateDefault();
+            updater.updateGeneral(input);
+            probe.endTick();
+            if (container.isGameOver() || container.isStalled()) {
+                container.clear();
+                updater.resynchronise();
+            }
+        }
+    }
+}
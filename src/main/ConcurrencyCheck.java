@@ -0,0 +1,435 @@
+package main;
+
+import checkpoint.Checkpoint;
+import checkpoint.Checkpointer;
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameSpace.Container;
+import classes.gameSpace.PersistentBoard;
+import telemetry.TelemetryWriter;
+import ui.managers.Generator;
+import ui.managers.GravityScheduler;
+import ui.managers.GravityTimer;
+import ui.managers.PossibleUserInput;
+import ui.managers.SequencedRing;
+import ui.managers.Updater;
+import versus.LockstepSession;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless checks of the concurrent (and persistent) structures of the game, repeatable like AllocationBudgetCheck so
+ *      that they can run in builds:
+ *      ring: a SequencedRing with several producers; every record accepted is consumed exactly once and in the order
+ *          its producer offered it, including those claimed just before the ring is closed.
+ *      telemetry: TelemetryWriter.close() racing record(); every record is either in the file or counted as dropped.
+ *      rollback: pairs of LockstepSessions exchanging inputs over a simulated wire with random delays (hence
+ *          rollbacks) end every match in the same state (ref. LockstepSession.checksum()).
+ *      wheel: GravityScheduler timers of assorted periods (on levels 0 and 1 of the wheel) fire as often as they are due
+ *          and never before their deadline, never whilst paused and never after being cancelled.
+ *      rows: PersistentBoard against a naive model of the board, and earlier versions unchanged by the later ones
+ *          (copy-on-write rows).
+ *      checkpoint: a Checkpointer capturing every tick whilst its writer writes (the double buffer); no capture is
+ *          counted twice, and the file holds, intact, the state of the tick it says it was captured at (pieces included).
+ *
+ * Usage: ConcurrencyCheck [seed]; prints a line per check and exits with status 1 if any of them failed.
+ */
+public class ConcurrencyCheck {
+
+    private static int failed;
+
+    /**
+     * Milliseconds the wheel check tolerates the wheel thread being descheduled for (ticks missed then are skipped).
+     */
+    private final static long STALL_ALLOWANCE = 250;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long seed = (args.length > 0) ? Long.parseLong(args[0]) : 42;
+
+        checkRing(seed);
+        checkTelemetry();
+        checkRollback(seed);
+        checkWheel();
+        checkRows(seed);
+        checkCheckpoint(seed);
+
+        if (failed > 0) {
+            System.out.println(failed + " check(s) FAILED.");
+            System.exit(1);
+        }
+    }
+
+    private static void report(String check, boolean passed, String details) {
+        System.out.printf("%-10s %s: %s%n", check, passed ? "ok" : "FAILED", details);
+        if (!passed) {
+            failed++;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void checkRing(long seed) throws InterruptedException {
+        int producers = 4;
+        SequencedRing ring = new SequencedRing(64);
+        long[] payload = new long[ring.size()]; // producer << 32 | its sequence number.
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong attempts = new AtomicLong();
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                long sequence = 0;
+                while (true) {
+                    attempts.incrementAndGet();
+                    long position = ring.claim();
+                    if (position >= 0) {
+                        payload[ring.indexOf(position)] = (producer << 32) | sequence++;
+                        ring.publish(position);
+                        accepted.incrementAndGet();
+                    } else if (ring.isClosed()) {
+                        return;
+                    }
+                }
+            }));
+        }
+        Random random = new Random(seed);
+        threads.add(Thread.ofPlatform().start(() -> {
+            sleep(200 + random.nextInt(100));
+            ring.close();
+        }));
+
+        long[] next = new long[producers];
+        long consumed = 0;
+        long outOfOrder = 0;
+        while (!ring.isDrained()) {
+            int index = ring.peek();
+            if (index < 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long record = payload[index];
+            ring.release();
+            int producer = (int) (record >>> 32);
+            if ((record & 0xFFFF_FFFFL) != next[producer]) {
+                outOfOrder++;
+            }
+            next[producer] = (record & 0xFFFF_FFFFL) + 1;
+            consumed++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        boolean passed = consumed == accepted.get() && outOfOrder == 0
+                && accepted.get() + ring.getDropped() == attempts.get();
+        report("ring", passed, String.format("%d producers, %d accepted, %d consumed, %d dropped, %d out of order",
+                producers, accepted.get(), consumed, ring.getDropped(), outOfOrder));
+    }
+
+    private static void checkTelemetry() throws IOException, InterruptedException {
+        int rounds = 50;
+        int lost = 0;
+        long total = 0;
+        for (int round = 0; round < rounds; round++) {
+            Path file = Files.createTempFile("telemetry-check", ".bin");
+            TelemetryWriter writer = new TelemetryWriter(file, 64, 4096);
+            AtomicLong accepted = new AtomicLong();
+            AtomicLong attempts = new AtomicLong();
+            AtomicInteger stop = new AtomicInteger();
+            ArrayList<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    while (stop.get() == 0) {
+                        attempts.incrementAndGet();
+                        if (writer.record(TelemetryWriter.PIECE_SPAWNED, 1, 2, 3, 4)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            sleep(2);
+            writer.close();
+            stop.set(1);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long inFile = (Files.size(file) - TelemetryWriter.HEADER_LENGTH) / TelemetryWriter.RECORD_LENGTH;
+            if (inFile != accepted.get() || accepted.get() + writer.getDropped() != attempts.get()) {
+                lost++;
+            }
+            total += inFile;
+            Files.delete(file);
+        }
+        report("telemetry", lost == 0, String.format("%d rounds of close() racing 4 writers, %d records written, %d rounds lost records",
+                rounds, total, lost));
+    }
+
+    private static void checkRollback(long seed) {
+        int matches = 50;
+        int ticks = 600;
+        int desyncs = 0;
+        int errors = 0;
+        long rollbacks = 0;
+        PossibleUserInput[] actions = PossibleUserInput.values();
+        for (long match = seed; match < seed + matches; match++) {
+            try {
+                LockstepSession[] sessions = {new LockstepSession(match, 0), new LockstepSession(match, 1)};
+                // messages in flight to each peer: {tick, packed inputs, step at which it arrives}.
+                ArrayList<ArrayDeque<long[]>> wires = new ArrayList<>(List.of(new ArrayDeque<>(), new ArrayDeque<>()));
+                Random random = new Random(match);
+                long step = 0;
+                while (!isOver(sessions, ticks)) {
+                    step++;
+                    for (int peer = 0; peer < 2; peer++) {
+                        LockstepSession session = sessions[peer];
+                        ArrayDeque<long[]> incoming = wires.get(peer);
+                        while (!incoming.isEmpty() && incoming.peek()[2] <= step) {
+                            long[] message = incoming.poll();
+                            session.receiveRemote((int) message[0], (int) message[1]);
+                        }
+                        if (session.getTick() < ticks && session.canAdvance() && random.nextInt(3) != 0) {
+                            if (random.nextInt(2) == 0) {
+                                session.addLocalInput(actions[random.nextInt(actions.length)]);
+                            }
+                            int tick = session.getTick();
+                            ArrayDeque<long[]> outgoing = wires.get(1 - peer);
+                            long arrival = step + 1 + random.nextInt(12);
+                            if (!outgoing.isEmpty()) {
+                                arrival = Math.max(arrival, outgoing.peekLast()[2]); // delivered in order (TCP).
+                            }
+                            outgoing.add(new long[]{tick, session.advance(), arrival});
+                        }
+                    }
+                }
+                if (sessions[0].checksum() != sessions[1].checksum()) {
+                    desyncs++;
+                }
+                rollbacks += sessions[0].getRollbacks() + sessions[1].getRollbacks();
+            } catch (RuntimeException e) {
+                errors++;
+                System.out.println("match " + match + ": " + e);
+            }
+        }
+        report("rollback", desyncs == 0 && errors == 0, String.format("%d matches of %d ticks, %d rollbacks, %d desyncs, %d errors",
+                matches, ticks, rollbacks, desyncs, errors));
+    }
+
+    private static boolean isOver(LockstepSession[] sessions, int ticks) {
+        for (LockstepSession session : sessions) {
+            if (session.getTick() < ticks || session.getConfirmedRemoteTick() < ticks - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkWheel() {
+        long[] periods = {3, 7, 20, 65, 150}; // milliseconds; 65 and 150 are filed on level 1 first.
+        long duration = 1500;
+        try (GravityScheduler scheduler = new GravityScheduler("check-wheel")) {
+            GravityTimer[] timers = new GravityTimer[periods.length + 2];
+            AtomicInteger[] fired = new AtomicInteger[timers.length];
+            AtomicInteger early = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int i = 0; i < timers.length; i++) {
+                int timer = i;
+                fired[i] = new AtomicInteger();
+                long period = (i < periods.length) ? periods[i] : 10;
+                long firstDue = start + TimeUnit.MILLISECONDS.toNanos(period);
+                timers[i] = scheduler.schedule(latenessNanos -> {
+                    fired[timer].incrementAndGet();
+                    GravityTimer self = timers[timer]; // null if the first tick beats schedule() returning it.
+                    if (System.nanoTime() < ((self != null) ? self.getDueNanos() : firstDue)) {
+                        early.incrementAndGet();
+                    }
+                }, Runnable::run, period, TimeUnit.MILLISECONDS);
+            }
+            GravityTimer paused = timers[periods.length];
+            GravityTimer cancelled = timers[periods.length + 1];
+
+            sleep(100);
+            paused.pause();
+            cancelled.cancel();
+            int firedBeforePause = fired[periods.length].get();
+            int firedBeforeCancel = fired[periods.length + 1].get();
+            sleep(duration - 100);
+            int firedWhilstPaused = fired[periods.length].get() - firedBeforePause;
+            int firedAfterCancel = fired[periods.length + 1].get() - firedBeforeCancel;
+            paused.resume();
+            sleep(100);
+            boolean resumed = fired[periods.length].get() > firedBeforePause;
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            StringBuilder details = new StringBuilder();
+            // a tick already being run when pause() or cancel() is invoked still completes.
+            boolean passed = early.get() == 0 && firedWhilstPaused <= 1 && firedAfterCancel <= 1 && resumed;
+            for (int i = 0; i < periods.length; i++) {
+                long due = elapsed / periods[i];
+                int count = fired[i].get();
+                // never more than due (scheduled one period from now); less by what a stall of up to STALL_ALLOWANCE
+                // costs on a loaded machine, since a timer more than MAX_CATCH_UP periods behind is resynchronised
+                // rather than caught up.
+                passed &= count >= due - 2 - STALL_ALLOWANCE / periods[i] && count <= due + 1;
+                details.append(String.format("%dms: %d of ~%d, ", periods[i], count, due));
+            }
+            details.append(String.format("%d early, %d whilst paused, %d after cancel", early.get(), firedWhilstPaused, firedAfterCancel));
+            report("wheel", passed, details.toString());
+        }
+    }
+
+    private static void checkRows(long seed) {
+        int columns = GameConstants.COLUMNS;
+        int rows = GameConstants.ROWS;
+        Random random = new Random(seed);
+        PersistentBoard board = PersistentBoard.EMPTY;
+        boolean[][] model = new boolean[rows][columns];
+        int score = 0;
+        long mismatches = 0;
+        ArrayList<PersistentBoard> versions = new ArrayList<>();
+        ArrayList<boolean[][]> models = new ArrayList<>();
+        for (int step = 0; step < 10_000; step++) {
+            ArrayList<Block> blocks = new ArrayList<>();
+            int y = GameConstants.MAXIMUM_Y - random.nextInt(4);
+            for (int k = 0; k < 8; k++) {
+                int x = random.nextInt(columns);
+                blocks.add(new Block(x, y));
+                model[y][x] = true;
+            }
+            board = board.withBlocks(blocks).withFullRowsCleared();
+
+            ArrayList<boolean[]> kept = new ArrayList<>();
+            for (boolean[] row : model) {
+                boolean full = true;
+                for (boolean cell : row) {
+                    full &= cell;
+                }
+                if (full) {
+                    score++;
+                } else {
+                    kept.add(row.clone());
+                }
+            }
+            while (kept.size() < rows) {
+                kept.add(0, new boolean[columns]);
+            }
+            model = kept.toArray(new boolean[0][]);
+            mismatches += compare(board, model, score);
+            if (step % 500 == 0) {
+                versions.add(board);
+                boolean[][] snapshot = new boolean[rows][];
+                for (int row = 0; row < rows; row++) {
+                    snapshot[row] = model[row].clone(); // the model's rows are updated in place.
+                }
+                models.add(snapshot);
+            }
+        }
+        long staleVersions = 0;
+        for (int i = 0; i < versions.size(); i++) {
+            staleVersions += (compare(versions.get(i), models.get(i), versions.get(i).getScore()) == 0) ? 0 : 1;
+        }
+        report("rows", mismatches == 0 && staleVersions == 0, String.format("%d columns, score %d, %d mismatches, %d of %d kept versions changed",
+                columns, score, mismatches, staleVersions, versions.size()));
+    }
+
+    /**
+     * @return the number of cells (and scores) the board and the model disagree on, nextOccupied() included.
+     */
+    private static long compare(PersistentBoard board, boolean[][] model, int score) {
+        long mismatches = (board.getScore() == score) ? 0 : 1;
+        for (int y = GameConstants.MINIMUM_Y; y <= GameConstants.MAXIMUM_Y; y++) {
+            int next = board.nextOccupied(GameConstants.MINIMUM_X, y);
+            for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+                if (board.isOccupied(x, y) != model[y][x]) {
+                    mismatches++;
+                }
+                if (model[y][x]) {
+                    mismatches += (next == x) ? 0 : 1;
+                    next = board.nextOccupied(x + 1, y);
+                }
+            }
+            mismatches += (next == -1) ? 0 : 1;
+        }
+        return mismatches;
+    }
+
+    private static void checkCheckpoint(long seed) throws IOException {
+        int ticks = 20_000;
+        Container container = new Container();
+        Generator generator = new Generator(seed);
+        Updater updater = new Updater(container, generator);
+        Random bot = new Random(seed);
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+
+        Path file = Files.createTempFile("checkpoint-check", ".bin");
+        PersistentBoard[] captured = new PersistentBoard[ticks + 1];
+        Checkpointer checkpointer = new Checkpointer(file, container, generator, 1).start();
+        for (int tick = 1; tick <= ticks; tick++) {
+            updater.updateGeneral(inputs[bot.nextInt(inputs.length)]);
+            updater.updateDefault();
+            if (container.isGameOver() || container.isStalled()) {
+                container.clear();
+                updater.resynchronise();
+            }
+            captured[tick] = container.getVersion();
+            checkpointer.tick();
+        }
+        checkpointer.close();
+
+        Checkpoint checkpoint = Checkpoint.load(file);
+        Files.deleteIfExists(file);
+        boolean intact = checkpoint != null && checkpoint.getTick() >= 1 && checkpoint.getTick() <= ticks;
+        if (intact) {
+            Container restored = new Container();
+            checkpoint.restoreInto(restored, new Generator(0));
+            PersistentBoard expected = captured[(int) checkpoint.getTick()];
+            boolean[][] model = new boolean[GameConstants.ROWS][GameConstants.COLUMNS];
+            long pieceMismatches = 0;
+            for (int y = GameConstants.MINIMUM_Y; y <= GameConstants.MAXIMUM_Y; y++) {
+                for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+                    model[y][x] = expected.isOccupied(x, y);
+                    pieceMismatches += (restored.getPiece(x, y) == expected.getPiece(x, y)) ? 0 : 1; // colours too.
+                }
+            }
+            intact = compare(restored.getVersion(), model, expected.getScore()) == 0 && pieceMismatches == 0;
+        }
+        // a capture the writer had not taken yet when the next one was handed over is neither written nor skipped.
+        boolean passed = intact && checkpointer.getWritten() > 0
+                && checkpointer.getWritten() + checkpointer.getSkipped() <= ticks;
+        report("checkpoint", passed, String.format("%d captures, %d written, %d skipped, last %s",
+                ticks, checkpointer.getWritten(), checkpointer.getSkipped(),
+                (checkpoint == null) ? "unreadable" : "of tick " + checkpoint.getTick() + (intact ? " restored intact" : " CORRUPT")));
+
+        // discard() in the middle of the writes returns at once; the writer deletes the files itself.
+        Checkpointer discarded = new Checkpointer(file, container, generator, 1).start();
+        for (int capture = 0; capture < 100; capture++) {
+            discarded.capture();
+        }
+        long start = System.nanoTime();
+        discarded.discard();
+        long discardNanos = System.nanoTime() - start;
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((Files.exists(file) || Files.exists(temporary)) && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+        boolean deleted = !Files.exists(file) && !Files.exists(temporary);
+        report("discard", deleted && discardNanos < TimeUnit.MILLISECONDS.toNanos(50),
+                String.format("returned in %d us, files %s", discardNanos / 1_000,
+                        deleted ? "deleted by the writer" : "STILL THERE"));
+    }
+}
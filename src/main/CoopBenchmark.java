@@ -0,0 +1,82 @@
+package main;
+
+import classes.gameSpace.Container;
+import ui.managers.CoopCoordinator;
+import ui.managers.PossibleUserInput;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless benchmark of the co-op mode: 2 to 64 bot controllers hammer one shared Container concurrently and the
+ *      throughput (actions per second over all controllers) is reported per controller count.
+ *
+ * Usage: CoopBenchmark [millisecondsPerRun]
+ *
+ * NOTE: the bots play randomly so the board fills up quickly; whenever the game is over the board is emptied and play
+ *       resumes (the number of such rounds is reported alongside).
+ */
+public class CoopBenchmark {
+
+    private final static int[] CONTROLLER_COUNTS = {2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws InterruptedException {
+        long millisecondsPerRun = (args.length > 0) ? Long.parseLong(args[0]) : 2000;
+
+        run(8, millisecondsPerRun); // warm-up; discarded.
+
+        System.out.println("controllers   actions/s     rounds");
+        for (int controllers : CONTROLLER_COUNTS) {
+            long[] result = run(controllers, millisecondsPerRun);
+            System.out.printf("%11d %11d %10d%n", controllers, result[0] * 1000 / millisecondsPerRun, result[1]);
+        }
+    }
+
+    /**
+     * @return {actions performed, rounds played}
+     */
+    private static long[] run(int controllers, long milliseconds) throws InterruptedException {
+        Container.getInstance().clear();
+
+        CoopCoordinator coordinator = new CoopCoordinator(controllers);
+        AtomicLong actions = new AtomicLong();
+        AtomicLong rounds = new AtomicLong(1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(controllers);
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+        long[] deadline = new long[1];
+
+        for (int i = 0; i < controllers; i++) {
+            CoopCoordinator.Controller controller = coordinator.newController();
+            Random random = new Random(i);
+            Thread bot = new Thread(() -> {
+                long performed = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        // gravity half of the time, a random action otherwise.
+                        PossibleUserInput input = random.nextBoolean() ? PossibleUserInput.DOWN : inputs[random.nextInt(inputs.length)];
+                        controller.apply(input);
+                        performed++;
+                        if (coordinator.resetIfGameOver()) {
+                            rounds.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    actions.addAndGet(performed);
+                    finished.countDown();
+                }
+            }, "coop-bot-" + i);
+            bot.setDaemon(true);
+            bot.start();
+        }
+
+        deadline[0] = System.nanoTime() + milliseconds * 1_000_000L;
+        start.countDown();
+        finished.await();
+        return new long[] {actions.get(), rounds.get()};
+    }
+}
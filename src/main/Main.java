@@ -1,14 +1,82 @@
 package main;
 
+import checkpoint.Checkpoint;
+import checkpoint.Checkpointer;
+import classes.gameSpace.Container;
+import metrics.StartupTimeline;
+import metrics.TickMetrics;
 import ui.gui.GameBoard;
+import ui.managers.Generator;
+import ui.managers.Updater;
+
+import javax.swing.*;
+import java.awt.*;
+import java.lang.reflect.InvocationTargetException;
 
 /**
  * main: Begin the Main thread.
+ *
+ * Usage: Main [clusters]      (the number of BlockClusters that fall at once, i.e. the multi-cluster or party mode;
+ *      1 by default). Prints the usage and exits if it is not a positive number.
+ * The tick metrics are exported via JMX, and on localhost only if -Dtetris.metrics.port= is given (ref. metrics.TickMetrics).
+ * The start-up milestones up to the first rendered tick are printed with -Dtetris.verbose=true (ref. metrics.StartupTimeline).
+ * If the previous game was left unfinished (ref. checkpoint.Checkpointer), the user is offered to resume it.
  */
 public class Main {
+
+    private final static String USAGE = "Usage: Main [clusters]      (BlockClusters falling at once, 1 by default)";
+
     public static void main(String[] args) {
+        StartupTimeline.getInstance().mark("Main.main");
+
+        if (args.length > 0) {
+            int clusters;
+            try {
+                clusters = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                clusters = 0;
+            }
+            if (clusters <= 0) {
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+            Updater.getInstance().setClusterCount(clusters);
+        }
+
+        TickMetrics.getInstance().export();
+
+        offerToResume();
+        StartupTimeline.getInstance().mark("checkpoint looked up");
 
         new GameBoard();
 
     }
+
+    /**
+     * Restores the checkpointed game (if there is one and the user wants it) into the Container and the Generator before
+     *      the GameBoard is built. The dialog is shown on the event dispatch thread, as Swing requires; the main thread
+     *      waits for the answer.
+     */
+    private static void offerToResume() {
+        Checkpoint checkpoint = Checkpoint.load(Checkpointer.defaultFile());
+        if (checkpoint == null) {
+            return;
+        }
+        int[] answer = {JOptionPane.NO_OPTION};
+        try {
+            EventQueue.invokeAndWait(() -> answer[0] = JOptionPane.showConfirmDialog(null,
+                    String.format("Resume the unfinished game (score %d, saved %tF %<tT)?", checkpoint.getScore(), checkpoint.getSavedMillis()),
+                    "Tetris", JOptionPane.YES_NO_OPTION));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (InvocationTargetException e) {
+            System.err.println("The unfinished game could not be offered: " + e.getCause());
+            return;
+        }
+        if (answer[0] == JOptionPane.YES_OPTION) {
+            checkpoint.restoreInto(Container.getInstance(), Generator.getInstance());
+            Updater.getInstance().resynchronise();
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event: the game is over: a BlockCluster could not enter the game space
+ *      (Container.hasSpaceDown()) or garbage rows overflowed it.
+ */
+@Name("tetris.GameOver")
+@Label("Game Over")
+@Category("Tetris")
+@StackTrace(false)
+public class GameOverEvent extends Event {
+
+    @Label("Score")
+    public int score;
+
+    @Label("Column")
+    @Description("Column of the cell that blocked the way (-1 if the board overflowed)")
+    public int column;
+}
@@ -0,0 +1,125 @@
+package metrics;
+
+/**
+ * Input-to-display latency of the GUI game, per user action (a key mapped to a PossibleUserInput; other keys are not
+ *      measured), split into stages:
+ *      QUEUE: from the KeyListener queuing it until the game loop applies it (ref. ui.managers.InputQueue).
+ *      UPDATE: Updater.updateGeneral().
+ *      RENDER: the render of the board (e.g. updateDisplayGrid()).
+ *      PAINT: from then until Swing has painted the dirty regions (ref. ui.gui.PaintObservingRepaintManager).
+ *      END_TO_END: from the KeyListener queuing it until painted.
+ *
+ * Every time is a System.nanoTime(): KeyEvent.getWhen() is wall-clock time (currentTimeMillis) of millisecond
+ *      resolution and cannot be subtracted from it, so the stages start when the listener ran.
+ *
+ * Usage (on the event dispatch thread): for every input received(queuedNanos); update; applied(); then, once per frame,
+ *      render; rendered(); ... painted(). Every input applied before a render completes with the next paint.
+ *
+ * Attributes:
+ *      pending: the System.nanoTime() at which each input applied but not yet painted was queued, and when it was
+ *          rendered (0 until rendered).
+ */
+public class InputLatencyTracker {
+
+    public enum Stage { QUEUE, UPDATE, RENDER, PAINT, END_TO_END }
+
+    private static final int MAX_PENDING = 64;
+
+    private final LatencyHistogram[] histograms;
+    private final long[] pendingEventNanos;
+    private final long[] pendingRenderedNanos;
+    private int pendingCount;
+
+    private long eventNanos;
+    private long receivedNanos;
+    private long appliedNanos;
+
+    public InputLatencyTracker() {
+        histograms = new LatencyHistogram[Stage.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        pendingEventNanos = new long[MAX_PENDING];
+        pendingRenderedNanos = new long[MAX_PENDING];
+    }
+
+    /**
+     * @param queuedNanos System.nanoTime() when the KeyListener queued the input.
+     */
+    public void received(long queuedNanos) {
+        receivedNanos = System.nanoTime();
+        eventNanos = queuedNanos;
+        histograms[Stage.QUEUE.ordinal()].record(Math.max(0, receivedNanos - queuedNanos));
+    }
+
+    public void applied() {
+        appliedNanos = System.nanoTime();
+        histograms[Stage.UPDATE.ordinal()].record(appliedNanos - receivedNanos);
+        if (pendingCount < MAX_PENDING) { // should paints stop altogether, later inputs are simply not measured.
+            pendingEventNanos[pendingCount] = eventNanos;
+            pendingRenderedNanos[pendingCount] = 0;
+            pendingCount++;
+        }
+    }
+
+    /**
+     * Marks the inputs applied since the previous render as rendered. Does nothing if there are none (e.g. a render
+     *      caused by gravity alone).
+     */
+    public void rendered() {
+        if (pendingCount == 0 || pendingRenderedNanos[pendingCount - 1] != 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        histograms[Stage.RENDER.ordinal()].record(now - appliedNanos);
+        for (int i = pendingCount - 1; i >= 0 && pendingRenderedNanos[i] == 0; i--) {
+            pendingRenderedNanos[i] = now;
+        }
+    }
+
+    /**
+     * Completes every input rendered before this paint.
+     */
+    public void painted() {
+        long now = System.nanoTime();
+        int remaining = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingRenderedNanos[i] == 0) {
+                // applied after the render; waits for the next paint.
+                pendingEventNanos[remaining] = pendingEventNanos[i];
+                pendingRenderedNanos[remaining] = 0;
+                remaining++;
+                continue;
+            }
+            histograms[Stage.PAINT.ordinal()].record(now - pendingRenderedNanos[i]);
+            histograms[Stage.END_TO_END.ordinal()].record(now - pendingEventNanos[i]);
+        }
+        pendingCount = remaining;
+    }
+
+    public LatencyHistogram get(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * @return a short line for the HUD (end-to-end latency).
+     */
+    public String liveText() {
+        LatencyHistogram endToEnd = get(Stage.END_TO_END);
+        return String.format("input p50 %.1f ms | p99 %.1f ms | max %.1f ms",
+                endToEnd.getP50Micros() / 1e3, endToEnd.getP99Micros() / 1e3, endToEnd.getMaxMicros() / 1e3);
+    }
+
+    /**
+     * @return a line per stage: count, p50, p99 and max (milliseconds).
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Input-to-display latency:\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = get(stage);
+            summary.append(String.format("%-11s count=%d p50=%.2fms p99=%.2fms max=%.2fms%n", stage, histogram.getCount(),
+                    histogram.getP50Micros() / 1e3, histogram.getP99Micros() / 1e3, histogram.getMaxMicros() / 1e3));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A latency histogram in the manner of HdrHistogram: buckets are log-linear (every power of two is split into SUB_BUCKETS
+ *      equal sub-buckets), so every recorded value is kept to within 1 / SUB_BUCKETS (~3%) of its magnitude, from a
+ *      nanosecond up to MAXIMUM_NANOS. Recording is a handful of arithmetic instructions and an atomic increment; it never
+ *      allocates and may be done from any number of threads.
+ *
+ * Attributes:
+ *      counts: the number of samples per bucket (ref. indexOf()).
+ *      count, max: over all samples since the last reset().
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Longer samples are clamped (2^40 ns is about 18 minutes).
+     */
+    private static final long MAXIMUM_NANOS = (1L << 40) - 1;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(indexOf(MAXIMUM_NANOS) + 1);
+        count = new AtomicLong();
+        max = new AtomicLong();
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(MAXIMUM_NANOS, nanos));
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * @param quantile in [0, 1].
+     * @return the (upper bound of the bucket of the) value below which the given fraction of the samples lie; 0 if empty.
+     */
+    public long valueAtQuantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int index = 0; index < counts.length(); index++) {
+            seen += counts.get(index);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(index), max.get());
+            }
+        }
+        return max.get(); // samples were recorded whilst iterating.
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public double getP50Micros() {
+        return valueAtQuantile(0.5) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return valueAtQuantile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1e3;
+    }
+
+    /**
+     * Forgets every sample. Samples recorded concurrently may be partly lost.
+     */
+    @Override
+    public void reset() {
+        for (int index = 0; index < counts.length(); index++) {
+            counts.set(index, 0);
+        }
+        count.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Values below SUB_BUCKETS have a bucket each; above, the SUB_BUCKET_BITS bits below the most significant one pick the
+     *      sub-bucket of the power of two.
+     */
+    private static int indexOf(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (magnitude < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = SUB_BUCKETS + (index & (SUB_BUCKETS - 1));
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,16 @@
+package metrics;
+
+/**
+ * JMX view of a LatencyHistogram (registered by TickMetrics.export() under "tetris:type=TickPhase,name=<phase>").
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
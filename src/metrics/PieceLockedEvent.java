@@ -0,0 +1,33 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event: a BlockCluster was locked into the settled blocks (Container.amalgamate()).
+ */
+@Name("tetris.PieceLocked")
+@Label("Piece Locked")
+@Category("Tetris")
+@StackTrace(false)
+public class PieceLockedEvent extends Event {
+
+    @Label("Form")
+    public String form;
+
+    @Label("Column")
+    @Description("Leftmost column of the 3x3 box of the BlockCluster")
+    public int column;
+
+    @Label("Row")
+    @Description("Uppermost row of the 3x3 box of the BlockCluster")
+    public int row;
+
+    @Label("Blocks")
+    @Description("Number of blocks written into the game space")
+    public int blocks;
+}
@@ -0,0 +1,33 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event: a BlockCluster was generated (Generator.generateBlockCluster()); the duration is that of
+ *      the generation.
+ */
+@Name("tetris.PieceSpawned")
+@Label("Piece Spawned")
+@Category("Tetris")
+@StackTrace(false)
+public class PieceSpawnedEvent extends Event {
+
+    @Label("Form")
+    public String form;
+
+    @Label("Orientation")
+    public String orientation;
+
+    @Label("Column")
+    @Description("Leftmost column of the 3x3 box of the BlockCluster")
+    public int column;
+
+    @Label("Index")
+    @Description("Number of BlockClusters the Generator produced before this one")
+    public long index;
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event: the board of the GameBoard was rendered (the GraphicCells brought up to date by
+ *      GameBoard.updateDisplayGrid(), a RasterBoardPanel render or an ActiveBoardCanvas frame).
+ */
+@Name("tetris.RenderPass")
+@Label("Render Pass")
+@Category("Tetris")
+@StackTrace(false)
+public class RenderPassEvent extends Event {
+
+    @Label("Cells")
+    public int cells;
+}
@@ -0,0 +1,29 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event: full rows were removed (Container.horizontalClear()); the duration is that of the entire
+ *      sweep.
+ */
+@Name("tetris.RowsCleared")
+@Label("Rows Cleared")
+@Category("Tetris")
+@StackTrace(false)
+public class RowsClearedEvent extends Event {
+
+    @Label("Count")
+    public int count;
+
+    @Label("Rows")
+    @Description("The rows removed, top to bottom, as they were numbered when each was removed")
+    public String rows;
+
+    @Label("Score")
+    public int score;
+}
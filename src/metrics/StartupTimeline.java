@@ -0,0 +1,81 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * The milestones of the GUI's start-up, from Main.main to the first gravity tick on screen, each with the time since
+ *      Main.main and since the previous milestone (ref. summary()). Printed once the first tick has been rendered.
+ *
+ * Attributes:
+ *      origin: System.nanoTime() when the class was initialised, i.e. on the first line of Main.main.
+ *      jvmMillis: how long the JVM had been running by then (class loading, JIT start-up etc. before Main.main).
+ *      finished: set by finish(); milestones after it are ignored.
+ */
+public class StartupTimeline {
+
+    private static final StartupTimeline instance = new StartupTimeline();
+
+    private final long origin;
+    private final long jvmMillis;
+    private final ArrayList<String> milestones;
+    private final ArrayList<Long> nanos;
+    private boolean finished;
+
+    private StartupTimeline() {
+        origin = System.nanoTime();
+        jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        milestones = new ArrayList<>();
+        nanos = new ArrayList<>();
+    }
+
+    public static StartupTimeline getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records that the milestone was reached now (from any thread).
+     */
+    public synchronized void mark(String milestone) {
+        if (!finished) {
+            milestones.add(milestone);
+            nanos.add(System.nanoTime() - origin);
+        }
+    }
+
+    /**
+     * Records the last milestone.
+     * @return the breakdown (ref. summary()); null if the timeline had already been finished.
+     */
+    public synchronized String finish(String milestone) {
+        if (finished) {
+            return null;
+        }
+        mark(milestone);
+        finished = true;
+        return summary();
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return e.g.
+     *      Start-up (JVM up 96 ms before Main.main):
+     *            0.0 ms  (+0.0)    Main.main
+     *          412.7 ms  (+412.7)  welcome frame shown
+     *          ...
+     */
+    public synchronized String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Start-up (JVM up %d ms before Main.main):%n", jvmMillis));
+        long previous = 0;
+        for (int i = 0; i < milestones.size(); i++) {
+            long at = nanos.get(i);
+            text.append(String.format("  %9.1f ms  (+%.1f)  %s%n", at / 1e6, (at - previous) / 1e6, milestones.get(i)));
+            previous = at;
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+
+/**
+ * Latency of each phase of the game cycle (ref. TickPhase), one LatencyHistogram per phase. Is shared by every game of the
+ *      process (the GUI game or the sessions of the server).
+ *
+ * Usage: long start = System.nanoTime(); ...phase...; TickMetrics.getInstance().record(TickPhase.X, start);
+ *
+ * export() makes the percentiles available via JMX and, only where a port is given (-Dtetris.metrics.port= or by the
+ *      caller, e.g. the GameServer), as plain text on http://localhost:port/metrics.
+ */
+public class TickMetrics {
+
+    /**
+     * The system property naming the port of the plaintext endpoint (0 for any free one).
+     */
+    public final static String PORT_PROPERTY = "tetris.metrics.port";
+    /**
+     * No plaintext endpoint (ref. export(int)).
+     */
+    public final static int NO_ENDPOINT = -1;
+
+    private static final TickMetrics tickMetrics = new TickMetrics();
+
+    private final EnumMap<TickPhase, LatencyHistogram> histograms;
+    private boolean exported;
+    private HttpServer endpoint;
+
+    private TickMetrics() {
+        histograms = new EnumMap<>(TickPhase.class);
+        for (TickPhase phase : TickPhase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public static TickMetrics getInstance() {
+        return tickMetrics;
+    }
+
+    /**
+     * Records the time since start for the phase.
+     * @return the current System.nanoTime() (the start of whatever phase follows).
+     */
+    public long record(TickPhase phase, long start) {
+        long now = System.nanoTime();
+        histograms.get(phase).record(now - start);
+        return now;
+    }
+
+    public LatencyHistogram get(TickPhase phase) {
+        return histograms.get(phase);
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @return a line per phase: count, p50, p99 and max (microseconds).
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (TickPhase phase : TickPhase.values()) {
+            LatencyHistogram histogram = histograms.get(phase);
+            report.append(String.format("%-15s count=%d p50=%.1fus p99=%.1fus max=%.1fus%n", phase, histogram.getCount(),
+                    histogram.getP50Micros(), histogram.getP99Micros(), histogram.getMaxMicros()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Registers the histograms with the platform MBeanServer; the plaintext endpoint is only started if
+     *      -Dtetris.metrics.port= asks for it (so that e.g. the GUI game binds no port by default).
+     */
+    public void export() {
+        export(NO_ENDPOINT);
+    }
+
+    /**
+     * Registers the histograms with the platform MBeanServer and starts the plaintext endpoint on localhost. Only the
+     *      first invocation has an effect; failures are reported and otherwise ignored (metrics are not worth failing a
+     *      game for).
+     * @param defaultPort the port of the endpoint unless -Dtetris.metrics.port= names another (e.g.
+     *                    GameConstants.METRICS_PORT); NO_ENDPOINT for none.
+     */
+    public synchronized void export(int defaultPort) {
+        if (exported) {
+            return;
+        }
+        exported = true;
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (TickPhase phase : TickPhase.values()) {
+            try {
+                ObjectName name = new ObjectName("tetris:type=TickPhase,name=" + phase);
+                if (!mBeanServer.isRegistered(name)) {
+                    mBeanServer.registerMBean(histograms.get(phase), name);
+                }
+            } catch (JMException e) {
+                System.err.println("Registering the tick metrics with JMX failed: " + e.getMessage());
+            }
+        }
+
+        int port = Integer.getInteger(PORT_PROPERTY, defaultPort);
+        if (port < 0) {
+            return;
+        }
+        try {
+            endpoint = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            endpoint.createContext("/metrics", exchange -> {
+                byte[] body = report().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            endpoint.start();
+            System.out.println("Tick metrics on http://localhost:" + endpoint.getAddress().getPort() + "/metrics");
+        } catch (IOException e) {
+            System.err.println("The metrics endpoint could not be started: " + e.getMessage());
+        }
+    }
+}
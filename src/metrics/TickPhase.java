@@ -0,0 +1,23 @@
+package metrics;
+
+/**
+ * The phases of the game cycle that are timed separately (ref. TickMetrics).
+ */
+public enum TickPhase {
+    /**
+     * Updater.updateCluster(): generating and introducing BlockClusters.
+     */
+    GENERATION,
+    /**
+     * The movement checks of the Container (hasSpaceDown(), hasSpaceToLeft(), rotation checks, ...) and the movement.
+     */
+    MOVEMENT,
+    /**
+     * Container.checkAndUpdateGrid(): locking (amalgamating) a BlockCluster and clearing rows.
+     */
+    LOCK_AND_CLEAR,
+    /**
+     * GameBoard.updateDisplayGrid(): bringing the GraphicCells up to date.
+     */
+    RENDER
+}
@@ -0,0 +1,124 @@
+package metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Measures each tick of a game loop: how long it took (the "frame time") and how many bytes the ticking thread allocated
+ *      meanwhile (com.sun.management.ThreadMXBean.getCurrentThreadAllocatedBytes(), i.e. TLAB accounting; no sampling).
+ *      Feeds the HUD of the GameBoard and the headless allocation budget check (ref. main.AllocationBudgetCheck).
+ *
+ * Usage: beginTick(); ...tick...; endTick(); on the same thread.
+ *
+ * Attributes:
+ *      window*: the ticks of the current one second window; ticksPerSecond is that of the last complete window.
+ *      total*: since the last resetTotals() (for steady-state averages).
+ *
+ * NOTE: if the JVM does not support allocation accounting, every allocation figure is 0 (ref. isAllocationSupported()).
+ */
+public class TickProbe {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean allocationSupported;
+    private final List<GarbageCollectorMXBean> collectors;
+
+    private long tickStartNanos;
+    private long tickStartBytes;
+    private long lastFrameNanos;
+    private long lastTickBytes;
+
+    private long windowStart;
+    private int windowTicks;
+    private double ticksPerSecond;
+
+    private long totalTicks;
+    private long totalBytes;
+
+    public TickProbe() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean extended && extended.isThreadAllocatedMemorySupported()) {
+            extended.setThreadAllocatedMemoryEnabled(true);
+            threads = extended;
+            allocationSupported = true;
+        } else {
+            threads = null;
+            allocationSupported = false;
+        }
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        windowStart = System.nanoTime();
+    }
+
+    public void beginTick() {
+        tickStartBytes = allocatedBytes();
+        tickStartNanos = System.nanoTime();
+    }
+
+    public void endTick() {
+        long now = System.nanoTime();
+        lastFrameNanos = now - tickStartNanos;
+        lastTickBytes = allocatedBytes() - tickStartBytes;
+        totalTicks++;
+        totalBytes += lastTickBytes;
+
+        windowTicks++;
+        if (now - windowStart >= WINDOW_NANOS) {
+            ticksPerSecond = windowTicks * 1e9 / (now - windowStart);
+            windowTicks = 0;
+            windowStart = now;
+        }
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long getLastTickBytes() {
+        return lastTickBytes;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * @return the mean number of bytes allocated per tick since the last resetTotals().
+     */
+    public double getMeanBytesPerTick() {
+        return (totalTicks == 0) ? 0 : (double) totalBytes / totalTicks;
+    }
+
+    public void resetTotals() {
+        totalTicks = 0;
+        totalBytes = 0;
+    }
+
+    public boolean isAllocationSupported() {
+        return allocationSupported;
+    }
+
+    /**
+     * @return the number of garbage collections so far (all collectors).
+     */
+    public long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * @return a one-line summary for the HUD.
+     */
+    public String hudText() {
+        return String.format("%.1f ticks/s | frame %.2f ms | %d B/tick | GCs %d",
+                ticksPerSecond, lastFrameNanos / 1e6, lastTickBytes, gcCount());
+    }
+
+    private long allocatedBytes() {
+        return allocationSupported ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+}
@@ -0,0 +1,204 @@
+package server;
+
+import classes.GameConstants;
+import leaderboard.Leaderboard;
+import metrics.TickMetrics;
+import telemetry.TelemetryWriter;
+import ui.managers.GravityScheduler;
+import ui.managers.GravityTimer;
+import ui.managers.PossibleUserInput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authoritative headless game server: hosts many independent GameSessions (one per TCP connection).
+ *
+ * Threads:
+ *      every connection is served by a virtual thread which reads the user's actions (it also starts a second virtual
+ *          thread which writes the TICK frames, ref. Protocol, so that a slow client never stalls anyone but itself).
+ *      gravity ticks of ALL sessions are driven by one timing wheel (ref. ui.managers.GravityScheduler) which hands the
+ *          due ticks to a handful of platform worker threads. Each tick's lateness is recorded in tickStats.
+ *
+ * The final score of every session that was played to the end goes onto the leaderboard (ref.
+ *      leaderboard.Leaderboard.getInstance()). The analytics of every session are recorded into the file named by the system property tetris.telemetry, if set
+ *      (ref. telemetry.TelemetryWriter).
+ *
+ * Usage: GameServer [port] [tickMilliseconds] [workerThreads]
+ */
+public class GameServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final GravityScheduler scheduler;
+    private final ExecutorService workers;
+    private final long tickNanos;
+    private final TickStats tickStats;
+    private final AtomicInteger activeSessions;
+    private final AtomicLong sessionSeeds;
+    private final AtomicInteger sessionNumbers;
+    private final TelemetryWriter telemetry;
+    private volatile boolean running;
+
+    /**
+     * @param port 0 for any free port (ref. getPort()). Binds to the loopback address.
+     * @param tickMilliseconds interval between gravity ticks.
+     * @param workerThreads threads running the gravity ticks.
+     */
+    public GameServer(int port, long tickMilliseconds, int workerThreads) throws IOException {
+        serverSocket = new ServerSocket(port, 4096, InetAddress.getLoopbackAddress());
+        scheduler = new GravityScheduler("server-gravity-wheel");
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "gravity-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMilliseconds);
+        tickStats = new TickStats();
+        activeSessions = new AtomicInteger();
+        sessionSeeds = new AtomicLong(System.nanoTime());
+        sessionNumbers = new AtomicInteger();
+        String telemetryFile = System.getProperty("tetris.telemetry");
+        telemetry = (telemetryFile == null) ? null : new TelemetryWriter(Path.of(telemetryFile));
+    }
+
+    /**
+     * Starts accepting connections (on a virtual thread of its own).
+     */
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("acceptor").start(() -> {
+            while (running) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread.ofVirtual().name("session").start(() -> serve(socket));
+                } catch (IOException e) {
+                    if (running) {
+                        System.err.println("Accepting a connection failed: " + e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a session for the lifetime of the connection.
+     */
+    private void serve(Socket socket) {
+        activeSessions.incrementAndGet();
+        int sessionNumber = sessionNumbers.getAndIncrement();
+        GameSession session = new GameSession(sessionSeeds.getAndIncrement());
+        if (telemetry != null) {
+            session.recordTelemetry(telemetry, sessionNumber);
+        }
+        GravityTimer gravity = scheduler.schedule(latenessNanos -> {
+            tickStats.record(latenessNanos);
+            session.tick();
+        }, workers, tickNanos, TimeUnit.NANOSECONDS);
+        Thread writer = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), Protocol.TICK_FRAME_LENGTH * 4));
+            writer = Thread.ofVirtual().name("session-writer").start(() -> writeTicks(session, socket, out));
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            int b;
+            while (!session.isClosed() && (b = in.read()) != -1 && b != Protocol.QUIT) {
+                PossibleUserInput userAction = Protocol.toUserInput(b);
+                if (userAction != null) {
+                    session.applyInput(userAction);
+                }
+            }
+        } catch (IOException e) {
+            // the client went away; nothing to be done.
+        } finally {
+            gravity.cancel();
+            session.close();
+            if (session.isGameOver()) {
+                Leaderboard.getInstance().submit("session-" + sessionNumber, session.getScore());
+            }
+            if (writer != null) {
+                writer.interrupt();
+            }
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Writes a TICK frame for (the latest) tick until the game is over or the session closes.
+     */
+    private void writeTicks(GameSession session, Socket socket, DataOutputStream out) {
+        long lastSent = 0;
+        try {
+            while (!session.isClosed()) {
+                long tick = session.awaitTickAfter(lastSent, 1000);
+                boolean gameOver = session.isGameOver();
+                if (tick == lastSent && !gameOver) {
+                    continue; // timed out.
+                }
+                out.writeByte(Protocol.FRAME_TICK);
+                out.writeLong(tick);
+                out.writeInt(session.getScore());
+                out.writeByte(gameOver ? 1 : 0);
+                out.flush();
+                lastSent = tick;
+                if (gameOver) {
+                    socket.close(); // ends the reading side too.
+                    return;
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // the session ended.
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public TickStats getTickStats() {
+        return tickStats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        scheduler.close();
+        workers.shutdownNow();
+        if (telemetry != null) {
+            telemetry.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7777;
+        long tickMilliseconds = (args.length > 1) ? Long.parseLong(args[1]) : GameConstants.GRAVITY_DELAY;
+        int workerThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (GameServer server = new GameServer(port, tickMilliseconds, workerThreads)) {
+            server.start();
+            TickMetrics.getInstance().export(GameConstants.METRICS_PORT);
+            System.out.println("Serving on port " + server.getPort());
+            while (true) {
+                Thread.sleep(5000);
+                System.out.println("sessions=" + server.getActiveSessions() + " " + server.getTickStats().summariseAndReset());
+            }
+        }
+    }
+}
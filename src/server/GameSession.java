@@ -0,0 +1,162 @@
+package server;
+
+import classes.gameSpace.Container;
+import server.spectator.SpectatorFeed;
+import telemetry.TelemetryRecorder;
+import telemetry.TelemetryWriter;
+import ui.managers.Generator;
+import ui.managers.PossibleUserInput;
+import ui.managers.Updater;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A single headless game: its own Container, Generator and Updater (none of the singletons of the GUI game).
+ *
+ * Inputs arrive on the connection's thread and gravity ticks on a worker thread of the GameServer, so every access
+ *      to the game goes through lock (a ReentrantLock rather than synchronized, which would pin the carrier threads of
+ *      virtual threads whilst waiting).
+ *
+ * Attributes:
+ *      tick: number of gravity ticks so far; ticked is signalled whenever it changes (ref. awaitTickAfter()).
+ *      closed: set once the session ends (game over or disconnection).
+ *      spectatorFeed: if opened (ref. openSpectatorFeed()), published after every tick.
+ *      telemetry: if recording (ref. recordTelemetry()); detached when the session closes.
+ */
+public class GameSession {
+
+    private final Container container;
+    private final Updater updater;
+
+    private final ReentrantLock lock;
+    private final Condition ticked;
+    private long tick;
+    private volatile boolean closed;
+    private SpectatorFeed spectatorFeed;
+    private final long seed;
+    private TelemetryRecorder telemetry;
+
+    /**
+     * @param seed seed of the session's Generator.
+     */
+    public GameSession(long seed) {
+        this.seed = seed;
+        container = new Container();
+        updater = new Updater(container, new Generator(seed));
+        lock = new ReentrantLock();
+        ticked = lock.newCondition();
+    }
+
+    /**
+     * Applies a user action (ignored once the game is over).
+     */
+    public void applyInput(PossibleUserInput userAction) {
+        lock.lock();
+        try {
+            if (!closed && !container.isGameOver()) {
+                updater.updateGeneral(userAction);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gravity tick; invoked by the GameServer's GravityScheduler.
+     */
+    public void tick() {
+        lock.lock();
+        try {
+            if (closed || container.isGameOver()) {
+                return;
+            }
+            updater.updateDefault();
+            tick++;
+            if (spectatorFeed != null) {
+                spectatorFeed.publish();
+            }
+            ticked.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until a tick later than lastSeen has happened (or the session is closed, or the timeout elapses).
+     * Intermediate ticks are skipped if the caller is slow: only the latest one is of interest.
+     *
+     * @return the latest tick.
+     */
+    public long awaitTickAfter(long lastSeen, long timeoutMilliseconds) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds);
+            while (tick <= lastSeen && !closed && !container.isGameOver() && nanos > 0) {
+                nanos = ticked.awaitNanos(nanos);
+            }
+            return tick;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens (once) the feed through which spectators follow this game.
+     * @param keyframeInterval ticks between periodic keyframes.
+     * @param queueCapacity frames a spectator may lag behind.
+     * @return the feed (the existing one if already opened).
+     */
+    public SpectatorFeed openSpectatorFeed(int keyframeInterval, int queueCapacity) {
+        lock.lock();
+        try {
+            if (spectatorFeed == null) {
+                spectatorFeed = new SpectatorFeed(container, keyframeInterval, queueCapacity);
+            }
+            return spectatorFeed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the analytics of this game (locks, cleared rows, the final score) through the writer.
+     * @param game identifies the session within the telemetry file.
+     */
+    public void recordTelemetry(TelemetryWriter writer, int game) {
+        lock.lock();
+        try {
+            if (telemetry == null) {
+                telemetry = TelemetryRecorder.attach(writer, game, seed, container);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getScore() {
+        return container.getScore();
+    }
+
+    public boolean isGameOver() {
+        return container.isGameOver();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            if (telemetry != null) {
+                telemetry.detach();
+            }
+            ticked.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
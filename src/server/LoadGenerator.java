@@ -0,0 +1,141 @@
+package server;
+
+import classes.GameConstants;
+import ui.managers.PossibleUserInput;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Load-generating client for the GameServer: opens many concurrent sessions (a virtual thread each), optionally sends
+ *      random user actions, and measures the tick jitter as seen by the clients i.e. how far the interval between two
+ *      consecutive TICK frames strays from the time the ticks in between should have taken.
+ *
+ * Usage: LoadGenerator [port] [sessions] [seconds] [tickMilliseconds] [actionsPerSecond]
+ *
+ * Jitter is collected in a histogram of 1ms buckets (the last bucket collects everything beyond) from which the
+ *      percentiles are reported.
+ */
+public class LoadGenerator {
+
+    private final static int BUCKETS = 1000;
+
+    private final AtomicLongArray jitterHistogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong gamesOver = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7777;
+        int sessions = (args.length > 1) ? Integer.parseInt(args[1]) : 10_000;
+        long seconds = (args.length > 2) ? Long.parseLong(args[2]) : 30;
+        long tickMilliseconds = (args.length > 3) ? Long.parseLong(args[3]) : GameConstants.GRAVITY_DELAY;
+        int actionsPerSecond = (args.length > 4) ? Integer.parseInt(args[4]) : 2;
+
+        new LoadGenerator().run(port, sessions, seconds, tickMilliseconds, actionsPerSecond);
+    }
+
+    public void run(int port, int sessions, long seconds, long tickMilliseconds, int actionsPerSecond) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ArrayList<Thread> clients = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            clients.add(Thread.ofVirtual().start(() -> client(port, deadline, tickMilliseconds, actionsPerSecond)));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        System.out.println(summary(sessions));
+    }
+
+    private void client(int port, long deadline, long tickMilliseconds, int actionsPerSecond) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) Math.max(1000, tickMilliseconds * 10));
+            OutputStream out = socket.getOutputStream();
+            Thread actions = (actionsPerSecond > 0) ? Thread.ofVirtual().start(() -> sendActions(out, deadline, actionsPerSecond)) : null;
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            long tickNanos = tickMilliseconds * 1_000_000L;
+            long previous = 0;
+            long previousTick = 0;
+            boolean gameOver = false;
+            while (System.nanoTime() < deadline) {
+                if (in.readByte() != Protocol.FRAME_TICK) {
+                    throw new IOException("Unexpected frame");
+                }
+                long tick = in.readLong();
+                in.readInt(); // score
+                gameOver = in.readByte() != 0;
+                long now = System.nanoTime();
+                if (previous != 0) {
+                    // the server skips intermediate frames for a slow client, hence the number of ticks in between.
+                    long jitterMilliseconds = Math.abs((now - previous) - (tick - previousTick) * tickNanos) / 1_000_000L;
+                    jitterHistogram.incrementAndGet((int) Math.min(BUCKETS - 1, jitterMilliseconds));
+                }
+                previous = now;
+                previousTick = tick;
+                frames.incrementAndGet();
+                if (gameOver) {
+                    gamesOver.incrementAndGet();
+                    break;
+                }
+            }
+            if (actions != null) {
+                actions.interrupt();
+                actions.join(); // no action is written after the QUIT.
+            }
+            if (!gameOver) {
+                out.write(Protocol.QUIT); // before the socket is closed; once the game is over the server closes it itself.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (EOFException e) {
+            // the server closed the session.
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private void sendActions(OutputStream out, long deadline, int actionsPerSecond) {
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+        try {
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(1000 / actionsPerSecond);
+                out.write(Protocol.toByte(inputs[ThreadLocalRandom.current().nextInt(inputs.length)]));
+            }
+        } catch (IOException | InterruptedException e) {
+            // the session ended.
+        }
+    }
+
+    private String summary(int sessions) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += jitterHistogram.get(i);
+        }
+        return String.format("sessions=%d frames=%d gamesOver=%d failures=%d jitter p50=%dms p99=%dms p99.9=%dms max=%dms",
+                sessions, frames.get(), gamesOver.get(), failures.get(),
+                percentile(total, 0.5), percentile(total, 0.99), percentile(total, 0.999), percentile(total, 1.0));
+    }
+
+    private long percentile(long total, double fraction) {
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += jitterHistogram.get(i);
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
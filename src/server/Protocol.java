@@ -0,0 +1,75 @@
+package server;
+
+import ui.managers.PossibleUserInput;
+
+/**
+ * Wire format shared by the GameServer and its clients (e.g. the LoadGenerator). Kept deliberately tiny.
+ *
+ * Client to server: one byte per user action; the bytes are those of the keys of the GUI ('A', 'D', 'S', 'Q', 'E') and
+ *      QUIT (ESC) ends the session.
+ *
+ * Server to client: a TICK frame after every gravity tick:
+ *      byte FRAME_TICK | long tick | int score | byte gameOver (1 if the game is over; the connection is then closed)
+ */
+public class Protocol {
+    public final static byte LEFT = 'A';
+    public final static byte RIGHT = 'D';
+    public final static byte DOWN = 'S';
+    public final static byte ROTATE_LEFT = 'Q';
+    public final static byte ROTATE_RIGHT = 'E';
+    public final static byte QUIT = 0x1B;
+
+    public final static byte FRAME_TICK = 1;
+    public final static int TICK_FRAME_LENGTH = 1 + 8 + 4 + 1;
+
+    private Protocol() {
+
+    }
+
+    /**
+     * @return the user action the byte stands for, or null if it is not one.
+     */
+    public static PossibleUserInput toUserInput(int b) {
+        switch (b) {
+            case LEFT -> {
+                return PossibleUserInput.LEFT;
+            }
+            case RIGHT -> {
+                return PossibleUserInput.RIGHT;
+            }
+            case DOWN -> {
+                return PossibleUserInput.DOWN;
+            }
+            case ROTATE_LEFT -> {
+                return PossibleUserInput.ROTATE_LEFT;
+            }
+            case ROTATE_RIGHT -> {
+                return PossibleUserInput.ROTATE_RIGHT;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the byte standing for the user action.
+     */
+    public static byte toByte(PossibleUserInput userAction) {
+        switch (userAction) {
+            case LEFT -> {
+                return LEFT;
+            }
+            case RIGHT -> {
+                return RIGHT;
+            }
+            case DOWN -> {
+                return DOWN;
+            }
+            case ROTATE_LEFT -> {
+                return ROTATE_LEFT;
+            }
+            default -> {
+                return ROTATE_RIGHT;
+            }
+        }
+    }
+}
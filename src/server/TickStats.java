@@ -0,0 +1,31 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tick jitter of the GameServer: how late each gravity tick fired relative to when it was due.
+ * Is updated concurrently by the gravity worker threads and read (and reset) by the reporting thread.
+ */
+public class TickStats {
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder totalLatenessNanos = new LongAdder();
+    private final AtomicLong maxLatenessNanos = new AtomicLong();
+
+    public void record(long latenessNanos) {
+        ticks.increment();
+        totalLatenessNanos.add(latenessNanos);
+        maxLatenessNanos.accumulateAndGet(latenessNanos, Math::max);
+    }
+
+    /**
+     * @return a one-line summary of the ticks since the last invocation (the statistics are reset).
+     */
+    public String summariseAndReset() {
+        long count = ticks.sumThenReset();
+        long total = totalLatenessNanos.sumThenReset();
+        long max = maxLatenessNanos.getAndSet(0);
+        double mean = (count == 0) ? 0 : (double) total / count;
+        return String.format("ticks=%d meanLateness=%.3fms maxLateness=%.3fms", count, mean / 1e6, max / 1e6);
+    }
+}
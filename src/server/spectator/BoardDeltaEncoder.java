@@ -0,0 +1,169 @@
+package server.spectator;
+
+import classes.GameConstants;
+import classes.gameObjects.compoundConstructs.BlockCluster;
+import classes.gameSpace.Container;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Encodes the state of a Container into compact binary frames for spectators (ref. SpectatorFeed, SpectatorBoard).
+ * Each capture() is encoded at most once per frame type, however many spectators there are.
+ *
+ * Frames (big-endian):
+ *      KEYFRAME: 'K' | int sequence | int score | long[WORDS] settled blocks (bit y * COLUMNS + x) | clusters
+ *      DELTA:    'D' | int sequence | int score | short cleared | short row (x cleared) | short changed
+ *                    | short cell (x changed; the bit of the cell flips) | clusters
+ *      clusters: byte count | (byte form | byte orientation | short boxX | short boxY) x count
+ *
+ * A DELTA is applied by first removing the cleared rows in order (exactly as Container.horizontalClear() did) and then
+ *      flipping the changed cells; a freshly amalgamated BlockCluster is thus a handful of changed cells and a cleared
+ *      row is two bytes rather than the whole grid.
+ *
+ * Attributes:
+ *      previous: the settled blocks as of the previous capture() (what spectators hold after the previous frame).
+ *      current: the settled blocks as of the latest capture().
+ *      shifted: previous with the cleared rows removed; shifted XOR current are the changed cells.
+ */
+public class BoardDeltaEncoder {
+
+    public final static byte KEYFRAME = 'K';
+    public final static byte DELTA = 'D';
+
+    private final Container container;
+
+    private final long[] previous;
+    private final long[] current;
+    private final long[] shifted;
+
+    private int sequence;
+    private int score;
+    private final ArrayList<BlockCluster> clusters;
+
+    private short[] clearedRows;
+    private int clearedCount;
+
+    private final ByteBuffer scratch;
+    private byte[] delta;
+    private byte[] keyframe;
+
+    /**
+     * Starts the recording of cleared rows by the container.
+     */
+    public BoardDeltaEncoder(Container container) {
+        this.container = container;
+        previous = new long[SpectatorBoard.WORDS];
+        current = new long[SpectatorBoard.WORDS];
+        shifted = new long[SpectatorBoard.WORDS];
+        clusters = new ArrayList<>();
+        clearedRows = new short[GameConstants.MAX_DIMENSION_OF_BLOCK_CLUSTER];
+        // worst case: a keyframe, or a delta in which every cell changed.
+        scratch = ByteBuffer.allocate(16 + GameConstants.ROWS * 2 + GameConstants.ROWS * GameConstants.COLUMNS * 2
+                + 256 * 6 + SpectatorBoard.WORDS * 8);
+        container.setRecordClearedRows(true);
+    }
+
+    /**
+     * Captures the current state of the container; REQUIRES that no floating BlockCluster is amalgamated for graphics.
+     */
+    public void capture() {
+        System.arraycopy(current, 0, previous, 0, current.length);
+        Arrays.fill(current, 0);
+        for (int y = container.highestMaterialisedRow(); y <= GameConstants.MAXIMUM_Y; y++) {
+            for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+                if (container.isOccupied(x, y)) {
+                    SpectatorBoard.set(current, y * GameConstants.COLUMNS + x, true);
+                }
+            }
+        }
+
+        clearedCount = container.getClearedRowCount();
+        if (clearedRows.length < clearedCount) {
+            clearedRows = new short[clearedCount];
+        }
+        System.arraycopy(previous, 0, shifted, 0, previous.length);
+        for (int i = 0; i < clearedCount; i++) {
+            clearedRows[i] = (short) container.getClearedRow(i);
+            SpectatorBoard.removeRow(shifted, clearedRows[i]);
+        }
+        container.forgetClearedRows();
+
+        clusters.clear();
+        clusters.addAll(container.getFloatingClusters());
+        score = container.getScore();
+        sequence++;
+        delta = null;
+        keyframe = null;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the DELTA frame for the latest capture() (encoded once, then shared).
+     */
+    public byte[] delta() {
+        if (delta == null) {
+            scratch.clear();
+            scratch.put(DELTA).putInt(sequence).putInt(score);
+            scratch.putShort((short) clearedCount);
+            for (int i = 0; i < clearedCount; i++) {
+                scratch.putShort(clearedRows[i]);
+            }
+            int countPosition = scratch.position();
+            scratch.putShort((short) 0);
+            short changed = 0;
+            for (int word = 0; word < current.length; word++) {
+                long difference = shifted[word] ^ current[word];
+                while (difference != 0) {
+                    int bit = Long.numberOfTrailingZeros(difference);
+                    scratch.putShort((short) (word * 64 + bit));
+                    changed++;
+                    difference &= difference - 1;
+                }
+            }
+            scratch.putShort(countPosition, changed);
+            putClusters();
+            delta = Arrays.copyOf(scratch.array(), scratch.position());
+        }
+        return delta;
+    }
+
+    /**
+     * @return the KEYFRAME frame for the latest capture() (encoded once, then shared).
+     */
+    public byte[] keyframe() {
+        if (keyframe == null) {
+            scratch.clear();
+            scratch.put(KEYFRAME).putInt(sequence).putInt(score);
+            for (long word : current) {
+                scratch.putLong(word);
+            }
+            putClusters();
+            keyframe = Arrays.copyOf(scratch.array(), scratch.position());
+        }
+        return keyframe;
+    }
+
+    /**
+     * For Testing.
+     */
+    long[] currentBlocks() {
+        return current;
+    }
+
+    private void putClusters() {
+        int count = Math.min(255, clusters.size());
+        scratch.put((byte) count);
+        for (int i = 0; i < count; i++) {
+            BlockCluster cluster = clusters.get(i);
+            scratch.put((byte) cluster.getForm().ordinal());
+            scratch.put((byte) cluster.getOrientation().ordinal());
+            scratch.putShort((short) cluster.getBoxX());
+            scratch.putShort((short) cluster.getBoxY());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package server.spectator;
+
+import classes.GameConstants;
+import classes.gameSpace.Container;
+import ui.managers.Generator;
+import ui.managers.PossibleUserInput;
+import ui.managers.Updater;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts one headless game, ticking as fast as possible, to many local spectators (a virtual thread each, every
+ *      tenth one deliberately slow) and reports the encode cost per tick, the frame sizes compared to the full grid and
+ *      the frames dropped by backpressure. Finally checks that every spectator's board matches the game's.
+ *
+ * Usage: SpectatorBenchmark [spectators] [ticks]
+ */
+public class SpectatorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int spectators = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+        int ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 20_000;
+
+        Container container = new Container();
+        Updater updater = new Updater(container, new Generator(42));
+        SpectatorFeed feed = new SpectatorFeed(container, 100, 16);
+
+        AtomicLong frameBytes = new AtomicLong();
+        AtomicLong frameCount = new AtomicLong();
+        ArrayList<SpectatorSubscription> subscriptions = new ArrayList<>();
+        ArrayList<SpectatorBoard> boards = new ArrayList<>();
+        ArrayList<Thread> viewers = new ArrayList<>();
+        for (int i = 0; i < spectators; i++) {
+            SpectatorSubscription subscription = feed.subscribe();
+            SpectatorBoard board = new SpectatorBoard();
+            boolean slow = i % 10 == 0;
+            subscriptions.add(subscription);
+            boards.add(board);
+            viewers.add(Thread.ofVirtual().start(() -> view(subscription, board, slow, frameBytes, frameCount)));
+        }
+
+        Random random = new Random(7);
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+        long publishNanos = 0;
+        long rowsCleared = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            if (container.isGameOver()) {
+                rowsCleared += container.getScore();
+                container.clear();
+            }
+            updater.updateGeneral(inputs[random.nextInt(inputs.length)]);
+            updater.updateDefault();
+            long start = System.nanoTime();
+            feed.publish();
+            publishNanos += System.nanoTime() - start;
+        }
+
+        Thread.sleep(500); // let the spectators drain their queues.
+        for (Thread viewer : viewers) {
+            viewer.interrupt();
+            viewer.join();
+        }
+
+        long dropped = 0;
+        int matching = 0;
+        for (int i = 0; i < spectators; i++) {
+            dropped += subscriptions.get(i).getDroppedFrames();
+            SpectatorBoard board = boards.get(i);
+            if (board.getSequence() == feed.getEncoder().getSequence() && board.sameBlocksAs(feed.getEncoder().currentBlocks())) {
+                matching++;
+            }
+        }
+        int fullGridBytes = GameConstants.ROWS * GameConstants.COLUMNS;
+        System.out.printf("spectators=%d ticks=%d publish=%.2fus/tick meanFrame=%dB (full grid %dB) dropped=%d rowsCleared=%d inSync=%d/%d%n",
+                spectators, ticks, publishNanos / 1e3 / ticks, frameBytes.get() / Math.max(1, frameCount.get()), fullGridBytes,
+                dropped, rowsCleared + container.getScore(), matching, spectators);
+    }
+
+    private static void view(SpectatorSubscription subscription, SpectatorBoard board, boolean slow, AtomicLong frameBytes, AtomicLong frameCount) {
+        try {
+            while (true) {
+                byte[] frame = subscription.poll(1, TimeUnit.SECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                board.apply(frame);
+                frameBytes.addAndGet(frame.length);
+                frameCount.incrementAndGet();
+                if (slow) {
+                    Thread.sleep(1);
+                }
+            }
+        } catch (InterruptedException e) {
+            // drain what is left without lingering.
+            byte[] frame;
+            while ((frame = subscription.poll()) != null) {
+                board.apply(frame);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package server.spectator;
+
+import classes.GameConstants;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A spectator's copy of a board, rebuilt from the frames of a SpectatorFeed (ref. BoardDeltaEncoder for the format).
+ *
+ * A delta is only applied on top of the frame immediately preceding it; until a keyframe has been received (and after
+ *      a gap in the sequence) deltas are ignored.
+ *
+ * Attributes:
+ *      bits: settled blocks; bit (y * COLUMNS + x) is set if the cell is occupied.
+ *      clusterForms ... clusterBoxYs: the floating BlockClusters (form and orientation ordinals and 3x3 box position).
+ */
+public class SpectatorBoard {
+
+    final static int WORDS = (GameConstants.ROWS * GameConstants.COLUMNS + 63) / 64;
+
+    private final long[] bits;
+    private boolean synced;
+    private int sequence;
+    private int score;
+
+    private int clusterCount;
+    private byte[] clusterForms;
+    private byte[] clusterOrientations;
+    private short[] clusterBoxXs;
+    private short[] clusterBoxYs;
+
+    public SpectatorBoard() {
+        bits = new long[WORDS];
+        clusterForms = new byte[1];
+        clusterOrientations = new byte[1];
+        clusterBoxXs = new short[1];
+        clusterBoxYs = new short[1];
+    }
+
+    /**
+     * @return whether the frame was applied.
+     */
+    public boolean apply(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        byte type = buffer.get();
+        int frameSequence = buffer.getInt();
+        if (type == BoardDeltaEncoder.KEYFRAME) {
+            score = buffer.getInt();
+            for (int i = 0; i < WORDS; i++) {
+                bits[i] = buffer.getLong();
+            }
+        } else {
+            if (!synced || frameSequence != sequence + 1) {
+                synced = false; // wait for the next keyframe.
+                return false;
+            }
+            score = buffer.getInt();
+            int cleared = buffer.getShort();
+            for (int i = 0; i < cleared; i++) {
+                removeRow(bits, buffer.getShort());
+            }
+            int changed = buffer.getShort();
+            for (int i = 0; i < changed; i++) {
+                flip(bits, buffer.getShort());
+            }
+        }
+        readClusters(buffer);
+        sequence = frameSequence;
+        synced = true;
+        return true;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return whether a settled block occupies the cell (floating BlockClusters are not included).
+     */
+    public boolean isOccupied(int x, int y) {
+        return get(bits, y * GameConstants.COLUMNS + x);
+    }
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    public int getClusterForm(int i) {
+        return clusterForms[i];
+    }
+
+    public int getClusterOrientation(int i) {
+        return clusterOrientations[i];
+    }
+
+    public int getClusterBoxX(int i) {
+        return clusterBoxXs[i];
+    }
+
+    public int getClusterBoxY(int i) {
+        return clusterBoxYs[i];
+    }
+
+    /**
+     * For Testing.
+     * @return whether the settled blocks equal those of the given bitset.
+     */
+    boolean sameBlocksAs(long[] other) {
+        return Arrays.equals(bits, other);
+    }
+
+    private void readClusters(ByteBuffer buffer) {
+        clusterCount = buffer.get() & 0xFF;
+        if (clusterForms.length < clusterCount) {
+            clusterForms = new byte[clusterCount];
+            clusterOrientations = new byte[clusterCount];
+            clusterBoxXs = new short[clusterCount];
+            clusterBoxYs = new short[clusterCount];
+        }
+        for (int i = 0; i < clusterCount; i++) {
+            clusterForms[i] = buffer.get();
+            clusterOrientations[i] = buffer.get();
+            clusterBoxXs[i] = buffer.getShort();
+            clusterBoxYs[i] = buffer.getShort();
+        }
+    }
+
+    /**
+     * Bitset equivalent of removing a row in PersistentBoard.withFullRowsCleared(): rows above move down by one and row 0
+     *      is emptied.
+     */
+    static void removeRow(long[] bits, int row) {
+        for (int y = row; y > GameConstants.MINIMUM_Y; y--) {
+            for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+                set(bits, y * GameConstants.COLUMNS + x, get(bits, (y - 1) * GameConstants.COLUMNS + x));
+            }
+        }
+        for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+            set(bits, x, false);
+        }
+    }
+
+    static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void set(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    static void flip(long[] bits, int index) {
+        bits[index >>> 6] ^= 1L << index;
+    }
+}
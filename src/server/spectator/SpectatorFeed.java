@@ -0,0 +1,65 @@
+package server.spectator;
+
+import classes.gameSpace.Container;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Broadcasts one game to any number of spectators: the state is captured and encoded once per publish() by a single
+ *      BoardDeltaEncoder and the same frames are handed to every SpectatorSubscription.
+ *
+ * A keyframe goes out every keyframeInterval publications (and to spectators that just joined or fell behind);
+ *      otherwise only deltas are sent.
+ *
+ * publish() must be invoked from the game's thread (or whilst holding the game's lock), after a tick.
+ */
+public class SpectatorFeed {
+
+    private final BoardDeltaEncoder encoder;
+    private final CopyOnWriteArrayList<SpectatorSubscription> subscriptions;
+    private final int keyframeInterval;
+    private final int queueCapacity;
+
+    /**
+     * @param keyframeInterval number of publications between two periodic keyframes.
+     * @param queueCapacity number of frames a spectator may lag behind before it is sent a keyframe instead.
+     */
+    public SpectatorFeed(Container container, int keyframeInterval, int queueCapacity) {
+        encoder = new BoardDeltaEncoder(container);
+        subscriptions = new CopyOnWriteArrayList<>();
+        this.keyframeInterval = keyframeInterval;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public SpectatorSubscription subscribe() {
+        SpectatorSubscription subscription = new SpectatorSubscription(queueCapacity);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void unsubscribe(SpectatorSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Captures the state of the game and fans it out to every spectator.
+     */
+    public void publish() {
+        encoder.capture();
+        boolean keyframeDue = encoder.getSequence() % keyframeInterval == 0;
+        for (SpectatorSubscription subscription : subscriptions) {
+            subscription.deliver(encoder, keyframeDue);
+        }
+    }
+
+    /**
+     * For Testing.
+     */
+    BoardDeltaEncoder getEncoder() {
+        return encoder;
+    }
+}
@@ -0,0 +1,79 @@
+package server.spectator;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single spectator's end of a SpectatorFeed: a bounded queue of frames (shared, read-only byte arrays) consumed on the
+ *      spectator's own thread (ref. SpectatorBoard.apply()).
+ *
+ * Backpressure: if the spectator falls behind and its queue is full, the queued deltas are dropped and replaced by a
+ *      keyframe of the latest state; the game thread never waits for a spectator.
+ */
+public class SpectatorSubscription {
+
+    private final ArrayBlockingQueue<byte[]> frames;
+    private final AtomicLong droppedFrames;
+
+    /**
+     * Only accessed by the publishing (game) thread. A new spectator starts with a keyframe.
+     */
+    boolean needsKeyframe;
+
+    SpectatorSubscription(int capacity) {
+        frames = new ArrayBlockingQueue<>(capacity);
+        droppedFrames = new AtomicLong();
+        needsKeyframe = true;
+    }
+
+    /**
+     * @return the next frame; blocks until there is one.
+     */
+    public byte[] take() throws InterruptedException {
+        return frames.take();
+    }
+
+    /**
+     * @return the next frame, or null if there is none queued.
+     */
+    public byte[] poll() {
+        return frames.poll();
+    }
+
+    /**
+     * @return the next frame, or null if none arrived in time.
+     */
+    public byte[] poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return frames.poll(timeout, unit);
+    }
+
+    /**
+     * @return the number of frames dropped because this spectator fell behind.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Publishing thread only.
+     */
+    void deliver(BoardDeltaEncoder encoder, boolean keyframeDue) {
+        if (keyframeDue || needsKeyframe) {
+            offerKeyframe(encoder);
+        } else if (!frames.offer(encoder.delta())) {
+            offerKeyframe(encoder);
+        }
+    }
+
+    private void offerKeyframe(BoardDeltaEncoder encoder) {
+        byte[] keyframe = encoder.keyframe();
+        if (!frames.offer(keyframe)) {
+            // everything queued is superseded by the keyframe.
+            droppedFrames.addAndGet(frames.size());
+            frames.clear();
+            frames.offer(keyframe);
+        }
+        needsKeyframe = false;
+    }
+}
@@ -0,0 +1,84 @@
+package telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a telemetry file (ref. TelemetryWriter for the format) sequentially, a large buffer at a time.
+ *
+ * A torn record at the end of the file (the machine went down mid-write) is ignored.
+ *
+ * Usage: TelemetryReader file      (prints a summary)
+ */
+public class TelemetryReader {
+
+    /**
+     * Receives the records in the order they were written (which is the order of the events within each game).
+     */
+    public interface Visitor {
+        void record(byte type, int game, long nanos, short a, short b, int c);
+    }
+
+    /**
+     * @return the epoch milliseconds at which the file was opened.
+     */
+    public static long read(Path file, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TelemetryWriter.RECORD_LENGTH * 4096);
+            fill(channel, buffer);
+            if (buffer.remaining() < TelemetryWriter.HEADER_LENGTH || buffer.getInt() != TelemetryWriter.MAGIC) {
+                throw new IOException(file + " is not a telemetry file");
+            }
+            short version = buffer.getShort();
+            if (version != TelemetryWriter.VERSION) {
+                throw new IOException(file + " has version " + version + " (expected " + TelemetryWriter.VERSION + ")");
+            }
+            long epochMillis = buffer.getLong();
+            while (true) {
+                while (buffer.remaining() >= TelemetryWriter.RECORD_LENGTH) {
+                    visitor.record(buffer.get(), buffer.getInt(), buffer.getLong(), buffer.getShort(), buffer.getShort(), buffer.getInt());
+                }
+                buffer.compact();
+                if (channel.read(buffer) <= 0) {
+                    return epochMillis;
+                }
+                buffer.flip();
+            }
+        }
+    }
+
+    private static void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            // keep reading.
+        }
+        buffer.flip();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long[] counts = new long[128]; // by type; a type byte outside of it (e.g. a corrupt record) counts as unknown.
+        long[] unknown = new long[1];
+        long[] totals = new long[2]; // {rows cleared, final scores}
+        long[] last = new long[1];
+        read(Path.of(args[0]), (type, game, nanos, a, b, c) -> {
+            if (type < 0 || type >= counts.length) {
+                unknown[0]++;
+                return;
+            }
+            counts[type]++;
+            if (type == TelemetryWriter.ROWS_CLEARED) {
+                totals[0] += a;
+            } else if (type == TelemetryWriter.GAME_OVER) {
+                totals[1] += c;
+            }
+            last[0] = Math.max(last[0], nanos);
+        });
+        long games = counts[TelemetryWriter.GAME_OVER];
+        System.out.printf("games started %d, over %d; pieces spawned %d, locked %d; rows cleared %d; mean score %.1f; span %.1f s; unknown records %d%n",
+                counts[TelemetryWriter.GAME_STARTED], games, counts[TelemetryWriter.PIECE_SPAWNED],
+                counts[TelemetryWriter.PIECE_LOCKED], totals[0], (games == 0) ? 0.0 : (double) totals[1] / games, last[0] / 1e9,
+                unknown[0]);
+    }
+}
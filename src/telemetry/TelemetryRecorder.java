@@ -0,0 +1,82 @@
+package telemetry;
+
+import classes.events.GameEvent;
+import classes.gameSpace.Container;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Turns the GameEvents of one game into TelemetryWriter records.
+ *
+ * The recorder subscribes with a direct executor, i.e. it runs on whichever thread published the event: all it does
+ *      there is copy a few ints into the writer's ring, which is cheaper than handing the event to another thread.
+ *      PieceMoved events are not recorded (they would dwarf everything else; the lock positions are what is analysed).
+ *
+ * Attributes:
+ *      game: identifies the game within the file (e.g. a session number).
+ */
+public class TelemetryRecorder implements Flow.Subscriber<GameEvent> {
+
+    private final TelemetryWriter writer;
+    private final int game;
+    private Flow.Subscription subscription;
+
+    private TelemetryRecorder(TelemetryWriter writer, int game) {
+        this.writer = writer;
+        this.game = game;
+    }
+
+    /**
+     * Records the game of the container from now on, starting with a GAME_STARTED record.
+     * @param seed seed of the game's Generator.
+     * @return the recorder (ref. detach()).
+     */
+    public static TelemetryRecorder attach(TelemetryWriter writer, int game, long seed, Container container) {
+        TelemetryRecorder recorder = new TelemetryRecorder(writer, game);
+        writer.record(TelemetryWriter.GAME_STARTED, game, 0, 0, (int) seed);
+        container.getEvents().subscribe(recorder, Runnable::run);
+        return recorder;
+    }
+
+    /**
+     * Stops recording (e.g. when a session is abandoned before its game is over).
+     */
+    public void detach() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(GameEvent event) {
+        switch (event) {
+            case GameEvent.PieceSpawned spawned ->
+                    writer.record(TelemetryWriter.PIECE_SPAWNED, game, spawned.form().ordinal(), spawned.orientation().ordinal(), spawned.column());
+            case GameEvent.PieceLocked locked ->
+                    writer.record(TelemetryWriter.PIECE_LOCKED, game, locked.form().ordinal(), locked.column(), locked.row());
+            case GameEvent.RowsCleared cleared ->
+                    writer.record(TelemetryWriter.ROWS_CLEARED, game, cleared.count(), 0, cleared.score());
+            case GameEvent.GameOver over -> {
+                writer.record(TelemetryWriter.GAME_OVER, game, 0, 0, over.score());
+                detach();
+            }
+            case GameEvent.PieceMoved moved -> {
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println("Telemetry of game " + game + " ended: " + throwable);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
@@ -0,0 +1,68 @@
+package telemetry;
+
+import classes.gameSpace.Container;
+import ui.managers.Generator;
+import ui.managers.PossibleUserInput;
+import ui.managers.Updater;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays many headless games with random bots (on several threads at once) and records their telemetry into one file,
+ *      reporting how fast games were simulated and whether the TelemetryWriter kept up (dropped records).
+ *
+ * Usage: TelemetrySimulation [games] [threads] [file]
+ */
+public class TelemetrySimulation {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path file = Path.of((args.length > 2) ? args[2] : "telemetry.bin");
+
+        AtomicInteger nextGame = new AtomicInteger();
+        Thread[] players = new Thread[threads];
+        long start = System.nanoTime();
+        TelemetryWriter writer = new TelemetryWriter(file);
+        try (writer) {
+            for (int i = 0; i < threads; i++) {
+                players[i] = new Thread(() -> {
+                    int game;
+                    while ((game = nextGame.getAndIncrement()) < games) {
+                        play(writer, game);
+                    }
+                }, "simulated-player-" + i);
+                players[i].start();
+            }
+            for (Thread player : players) {
+                player.join();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.1f s (%.0f games/s); %d records written (%d bytes), %d dropped%n",
+                games, seconds, games / seconds, writer.getWritten(), Files.size(file), writer.getDropped());
+    }
+
+    /**
+     * Plays one game to the end (or until it stalls, ref. Container.isStalled()); the game number doubles as the seed.
+     */
+    private static void play(TelemetryWriter writer, int game) {
+        Container container = new Container();
+        Updater updater = new Updater(container, new Generator(game));
+        TelemetryRecorder recorder = TelemetryRecorder.attach(writer, game, game, container);
+        Random bot = new Random(game);
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+        while (!container.isGameOver()) {
+            if (container.isStalled()) {
+                recorder.detach(); // abandoned as a player would (ESC): no GAME_OVER record.
+                return;
+            }
+            updater.updateGeneral(inputs[bot.nextInt(inputs.length)]);
+            updater.updateDefault();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package telemetry;
+
+import classes.GameConstants;
+import ui.managers.SequencedRing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends the analytics records of any number of games (ref. TelemetryRecorder) to one file on local disk.
+ *
+ * Game threads never touch the file: record() copies the fields of a record into a slot of a bounded, lock-free ring
+ *      buffer (a ui.managers.SequencedRing, as ui.managers.InputQueue) and returns. A single writer thread drains the ring into a large
+ *      direct ByteBuffer and hands it to the FileChannel in one write() once it is full (or has waited
+ *      GameConstants.TELEMETRY_FLUSH_DELAY); every GameConstants.TELEMETRY_SYNC_DELAY the writer also force()s the
+ *      channel, so that at most that much telemetry is lost should the machine go down. A full ring drops the record
+ *      (and counts it, ref. getDropped()) rather than making the game wait.
+ *
+ * File format (big-endian): a header, 'T' 'T' 'E' 'L' | short VERSION | long epoch milliseconds at which the file was
+ *      opened, followed by records of RECORD_LENGTH bytes each:
+ *          byte type | int game | long nanoseconds since the file was opened | short a | short b | int c
+ *      what a, b and c hold depends on the type (ref. the constants below and TelemetryReader).
+ *
+ * Attributes:
+ *      ring: the sequencing of the slots of the record fields (types, games, ...); close() closes it, so that a record is
+ *          either refused (and counted as dropped) or written, however it races with close().
+ *      batch: the records drained but not yet written.
+ *      running: cleared by close(); the writer thread then drains what is left in the ring, writes it, forces it and
+ *          exits.
+ *      idle: set whilst the writer thread is parked (indefinitely if nothing awaits a write or force, otherwise until
+ *          the flush or sync is due); the first record() to see it unparks the writer, so only the record that ends an
+ *          idle spell pays for the syscall. The writer sets it before checking the ring one last time, so no record can
+ *          slip in between unnoticed.
+ */
+public class TelemetryWriter implements AutoCloseable {
+
+    public final static int MAGIC = ('T' << 24) | ('T' << 16) | ('E' << 8) | 'L';
+    public final static short VERSION = 1;
+    public final static int HEADER_LENGTH = 4 + 2 + 8;
+    public final static int RECORD_LENGTH = 1 + 4 + 8 + 2 + 2 + 4;
+
+    /**
+     * c: the seed of the game's Generator (its lower 32 bits).
+     */
+    public final static byte GAME_STARTED = 'G';
+    /**
+     * a: form ordinal, b: orientation ordinal, c: column.
+     */
+    public final static byte PIECE_SPAWNED = 'S';
+    /**
+     * a: form ordinal, b: column, c: row (of the 3x3 box).
+     */
+    public final static byte PIECE_LOCKED = 'L';
+    /**
+     * a: rows cleared, c: score afterwards.
+     */
+    public final static byte ROWS_CLEARED = 'C';
+    /**
+     * c: final score.
+     */
+    public final static byte GAME_OVER = 'O';
+
+    private final FileChannel channel;
+    private final long originNanos;
+
+    private final SequencedRing ring;
+    private final byte[] types;
+    private final int[] games;
+    private final long[] nanos;
+    private final short[] as;
+    private final short[] bs;
+    private final int[] cs;
+
+    private final ByteBuffer batch;
+    private final AtomicLong written;
+    private final Thread writer;
+    private volatile boolean running;
+    private volatile boolean idle;
+    private volatile IOException failure;
+
+    /**
+     * Opens (truncating) the file and starts the writer thread.
+     */
+    public TelemetryWriter(Path file) throws IOException {
+        this(file, GameConstants.TELEMETRY_RING_CAPACITY, GameConstants.TELEMETRY_BATCH_BYTES);
+    }
+
+    /**
+     * @param capacity records the ring holds; rounded up to a power of two.
+     * @param batchBytes size of the writes (at least one record).
+     */
+    public TelemetryWriter(Path file, int capacity, int batchBytes) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        originNanos = System.nanoTime();
+
+        ring = new SequencedRing(capacity);
+        types = new byte[ring.size()];
+        games = new int[ring.size()];
+        nanos = new long[ring.size()];
+        as = new short[ring.size()];
+        bs = new short[ring.size()];
+        cs = new int[ring.size()];
+
+        batch = ByteBuffer.allocateDirect(Math.max(RECORD_LENGTH, batchBytes - batchBytes % RECORD_LENGTH));
+        batch.putInt(MAGIC).putShort(VERSION).putLong(System.currentTimeMillis());
+        written = new AtomicLong();
+
+        running = true;
+        writer = new Thread(this::run, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a record; never blocks and never allocates.
+     * @return false (and the record is dropped) if the ring is full or the writer has been closed.
+     */
+    public boolean record(byte type, int game, int a, int b, int c) {
+        long position = ring.claim();
+        if (position < 0) {
+            return false;
+        }
+        int index = ring.indexOf(position);
+        types[index] = type;
+        games[index] = game;
+        nanos[index] = System.nanoTime() - originNanos;
+        as[index] = (short) a;
+        bs[index] = (short) b;
+        cs[index] = c;
+        ring.publish(position);
+        if (idle) {
+            idle = false;
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * @return records refused because the ring was full (the writer could not keep up) or the writer was closed.
+     */
+    public long getDropped() {
+        return ring.getDropped();
+    }
+
+    /**
+     * @return records handed to the file so far (not necessarily forced yet).
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Stops accepting records, writes and forces everything queued so far and closes the file.
+     * @throws IOException if any write failed (the first failure; the writer thread stops at that point).
+     */
+    @Override
+    public void close() throws IOException {
+        ring.close();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The writer thread.
+     */
+    private void run() {
+        long flushDelay = GameConstants.TELEMETRY_FLUSH_DELAY * 1_000_000L;
+        long syncDelay = GameConstants.TELEMETRY_SYNC_DELAY * 1_000_000L;
+        long oldestPending = System.nanoTime(); // of the header.
+        long lastSync = System.nanoTime();
+        boolean unsynced = false;
+        try {
+            while (true) {
+                boolean stopping = !running; // read BEFORE draining so that no record offered before close() is left.
+                int drained = drain();
+                if (stopping && !ring.isDrained()) {
+                    Thread.onSpinWait(); // a record claimed before close() is still being filled in.
+                    continue;
+                }
+                long now = System.nanoTime();
+                if (drained > 0 && batch.position() == drained * RECORD_LENGTH) {
+                    oldestPending = now;
+                }
+                if (batch.position() > 0 && (stopping || now - oldestPending >= flushDelay)) {
+                    write();
+                    unsynced = true;
+                }
+                if (unsynced && (stopping || now - lastSync >= syncDelay)) {
+                    channel.force(false);
+                    lastSync = now;
+                    unsynced = false;
+                }
+                if (stopping) {
+                    return;
+                }
+                if (drained == 0) {
+                    long timeout = Long.MAX_VALUE; // nothing to write or force: until a record (or close()) comes.
+                    if (batch.position() > 0) {
+                        timeout = flushDelay - (now - oldestPending);
+                    }
+                    if (unsynced) {
+                        timeout = Math.min(timeout, syncDelay - (now - lastSync));
+                    }
+                    idle = true;
+                    if (running && ring.peek() < 0) {
+                        if (timeout == Long.MAX_VALUE) {
+                            LockSupport.park();
+                        } else if (timeout > 0) {
+                            LockSupport.parkNanos(timeout);
+                        }
+                    }
+                    idle = false;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            ring.close(); // from now on records are refused (and counted as dropped).
+            running = false;
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the published records from the ring into the batch, writing the batch whenever it fills up.
+     * @return the number of records drained.
+     */
+    private int drain() throws IOException {
+        int drained = 0;
+        for (int index = ring.peek(); index >= 0; index = ring.peek()) {
+            if (batch.remaining() < RECORD_LENGTH) {
+                write();
+            }
+            batch.put(types[index]).putInt(games[index]).putLong(nanos[index]).putShort(as[index]).putShort(bs[index]).putInt(cs[index]);
+            ring.release();
+            drained++;
+        }
+        return drained;
+    }
+
+    private void write() throws IOException {
+        batch.flip();
+        int records = batch.remaining() / RECORD_LENGTH; // the header (once) is shorter than a record.
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+        written.addAndGet(records);
+    }
+}
@@ -0,0 +1,266 @@
+package ui.gui;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.BlockCluster;
+import classes.gameSpace.Container;
+import classes.gameSpace.PersistentBoard;
+import metrics.LatencyHistogram;
+import metrics.RenderPassEvent;
+import metrics.TickMetrics;
+import metrics.TickPhase;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The board drawn by active rendering (-Dtetris.render=active) rather than by Swing's repaint manager: a render thread
+ *      of its own draws it into a BufferStrategy and shows it at a fixed frame rate, that of the display (or
+ *      -Dtetris.fps=), however fast or slow gravity is.
+ *
+ * The game thread (the event dispatch thread) never draws: publish() hands over an immutable Publication of the game,
+ *      the board version (a PersistentBoard, immutable as it is) and the coordinates of the floating blocks, and the
+ *      render thread draws whatever was published last. A BlockCluster that gravity moved down one row since the
+ *      previous publication slides down to it over the gravity delay, from the time the gravity tick was due, instead of
+ *      jumping a row at once. Frames are drawn into a BoardRaster (only the rows that changed, in the colours of the
+ *      pieces) and blitted in one drawImage(); each is recorded as a TickPhase.RENDER and a RenderPassEvent, as the
+ *      renders of the other modes are.
+ *
+ * Attributes:
+ *      published: the latest Publication (written by the game thread, read by the render thread).
+ *      previousClusters, previousX, previousY: the floating BlockClusters of the previous publication and the
+ *          coordinates of their first block (game thread only; to recognise a descent).
+ *      raster: the board image (render thread only).
+ *      frameTimes: the time taken to draw and show each frame.
+ *
+ * NOTE: the state is transient; like the other components of the GameBoard the canvas is never serialised.
+ */
+public class ActiveBoardCanvas extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    private final static int PITCH = BoardRaster.PITCH;
+
+    private final transient Runnable afterShow;
+    private transient volatile Publication published;
+    private final transient ArrayList<BlockCluster> previousClusters;
+    private transient int[] previousX;
+    private transient int[] previousY;
+
+    private final transient BoardRaster raster;
+    private transient Thread renderer;
+    private transient volatile boolean running;
+    private final transient LatencyHistogram frameTimes;
+    private transient long frames;
+
+    /**
+     * The game as published for the render thread.
+     *
+     * Attributes:
+     *      xs, ys, pieces: the floating blocks inside the game space.
+     *      slides: slides[i] is set if block i is to slide down from the row above (ref. publish()).
+     *      slideStartNanos, slideNanos: when the slide starts (the gravity tick was due) and how long it lasts.
+     */
+    private record Publication(PersistentBoard board, int[] xs, int[] ys, byte[] pieces, boolean[] slides,
+                               long slideStartNanos, long slideNanos) {
+    }
+
+    /**
+     * @param afterShow invoked on the event dispatch thread once a publication has been shown for the first time.
+     */
+    public ActiveBoardCanvas(Runnable afterShow) {
+        this.afterShow = afterShow;
+        previousClusters = new ArrayList<>();
+        previousX = new int[0];
+        previousY = new int[0];
+        raster = new BoardRaster();
+        frameTimes = new LatencyHistogram();
+        published = new Publication(PersistentBoard.EMPTY, new int[0], new int[0], new byte[0], new boolean[0], 0, 0);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(BoardRaster.WIDTH, BoardRaster.HEIGHT);
+    }
+
+    /**
+     * @return false: keys go to the frame.
+     */
+    @Override
+    public boolean isFocusable() {
+        return false;
+    }
+
+    /**
+     * Publishes the current state of the game for the render thread (on the game thread, as soon as a gravity tick or a
+     *      user action changed it).
+     * @param gravityOnly whether the game changed by gravity ticks alone since the previous publication; only then do
+     *                    the BlockClusters that went down one row slide.
+     * @param slideStartNanos when the gravity tick was due (ref. GravityTimer.getDueNanos()); the slide starts then,
+     *                        however late the tick ran.
+     * @param slideNanos how long a slide takes (the gravity delay).
+     */
+    public void publish(Container container, boolean gravityOnly, long slideStartNanos, long slideNanos) {
+        ArrayList<BlockCluster> clusters = container.getFloatingClusters();
+        int count = 0;
+        for (BlockCluster cluster : clusters) {
+            for (Block block : cluster.getAllBlocks()) {
+                if (block != null && block.getyCoord() >= GameConstants.MINIMUM_Y) {
+                    count++;
+                }
+            }
+        }
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        byte[] pieces = new byte[count];
+        boolean[] slides = new boolean[count];
+        int[] firstX = new int[clusters.size()];
+        int[] firstY = new int[clusters.size()];
+
+        int n = 0;
+        for (int c = 0; c < clusters.size(); c++) {
+            BlockCluster cluster = clusters.get(c);
+            for (Block block : cluster.getAllBlocks()) {
+                if (block != null) {
+                    firstX[c] = block.getxCoord();
+                    firstY[c] = block.getyCoord();
+                    break;
+                }
+            }
+            int previous = previousClusters.indexOf(cluster);
+            boolean slide = gravityOnly && previous >= 0
+                    && previousX[previous] == firstX[c] && previousY[previous] + 1 == firstY[c];
+            for (Block block : cluster.getAllBlocks()) {
+                if (block != null && block.getyCoord() >= GameConstants.MINIMUM_Y) {
+                    xs[n] = block.getxCoord();
+                    ys[n] = block.getyCoord();
+                    pieces[n] = block.getPiece();
+                    slides[n] = slide;
+                    n++;
+                }
+            }
+        }
+        previousClusters.clear();
+        previousClusters.addAll(clusters);
+        previousX = firstX;
+        previousY = firstY;
+
+        published = new Publication(container.getVersion(), xs, ys, pieces, slides, slideStartNanos, slideNanos);
+    }
+
+    /**
+     * Starts the render thread; the canvas must be displayable (its frame packed or shown).
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        setIgnoreRepaint(true); // drawn by the render thread alone.
+        if (getBufferStrategy() == null) {
+            createBufferStrategy(2);
+        }
+        running = true;
+        renderer = new Thread(this::run, "active-renderer");
+        renderer.setDaemon(true);
+        renderer.start();
+    }
+
+    /**
+     * Stops the render thread (and waits for it).
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(renderer);
+        try {
+            renderer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the frame rate rendered at: -Dtetris.fps= if given, otherwise the refresh rate of the display (ACTIVE_FRAME_RATE
+     *         if it is unknown).
+     */
+    public int getFrameRate() {
+        Integer fps = Integer.getInteger("tetris.fps");
+        if (fps != null && fps > 0) {
+            return fps;
+        }
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        int refreshRate = (configuration == null) ? DisplayMode.REFRESH_RATE_UNKNOWN
+                : configuration.getDevice().getDisplayMode().getRefreshRate();
+        return (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN) ? GraphicsConstants.ACTIVE_FRAME_RATE : refreshRate;
+    }
+
+    /**
+     * @return e.g. "Active rendering: 8640 frames at 144 fps; frame time p50 0.4ms, p99 1.1ms, max 3.0ms"
+     */
+    public String summary() {
+        return String.format("Active rendering: %d frames at %d fps; frame time p50 %.1fms, p99 %.1fms, max %.1fms",
+                frames, getFrameRate(), frameTimes.getP50Micros() / 1000, frameTimes.getP99Micros() / 1000,
+                frameTimes.getMaxMicros() / 1000);
+    }
+
+    /**
+     * The render thread: draws and shows a frame whenever the pacer says one is due.
+     */
+    private void run() {
+        FramePacer pacer = new FramePacer(getFrameRate());
+        Publication shown = null;
+        while (running) {
+            RenderPassEvent event = new RenderPassEvent();
+            event.begin();
+            long start = System.nanoTime();
+            Publication publication = published;
+            render(publication, start);
+            frameTimes.record(TickMetrics.getInstance().record(TickPhase.RENDER, start) - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.cells = raster.getRedrawnRows() * GameConstants.COLUMNS;
+                event.commit();
+            }
+            frames++;
+            if (publication != shown) {
+                shown = publication;
+                EventQueue.invokeLater(afterShow);
+            }
+            pacer.awaitNextFrame();
+        }
+    }
+
+    private void render(Publication publication, long now) {
+        BufferStrategy strategy = getBufferStrategy();
+        do {
+            do {
+                Graphics graphics = strategy.getDrawGraphics();
+                try {
+                    draw(graphics, publication, now);
+                } finally {
+                    graphics.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync(); // flushes the pipeline (X11), else frames are shown in bursts.
+    }
+
+    private void draw(Graphics graphics, Publication publication, long now) {
+        raster.drawBoard(publication.board());
+
+        // a sliding block is drawn part of the way between the row above and its own.
+        long elapsed = now - publication.slideStartNanos();
+        int lag = (elapsed >= publication.slideNanos()) ? 0
+                : (int) (PITCH - PITCH * elapsed / publication.slideNanos());
+        for (int i = 0; i < publication.xs().length; i++) {
+            raster.drawBlock(publication.xs()[i], publication.ys()[i], publication.pieces()[i],
+                    publication.slides()[i] ? lag : 0);
+        }
+        graphics.drawImage(raster.getImage(), 0, 0, null);
+    }
+}
@@ -0,0 +1,196 @@
+package ui.gui;
+
+import classes.GameConstants;
+import classes.gameSpace.PersistentBoard;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
+
+/**
+ * The board as an image with an IndexColorModel, one byte per pixel: the palette holds the colour of every piece id
+ *      (ref. GraphicsConstants.PIECE_COLORS; the palette index of a cell IS its piece id) and that of the gaps, and the
+ *      board is drawn by writing palette indices straight into the image's DataBufferByte, a tile of tile squared pixels
+ *      per cell (BLOCK_DIMENSION by default). There are no per-cell Graphics calls: a row of cells is one scanline built
+ *      with Arrays.fill() and copied tile times, and showing the board is a single drawImage().
+ *
+ * A BoardRaster may also draw into a region of a larger image (ref. newImage()) shared with other boards, e.g. the atlas
+ *      of the SpectatorWall.
+ *
+ * Only rows that changed are redrawn: drawBoard() compares the version with the one drawn before, and rows that
+ *      PersistentBoard shares between the two are certainly unchanged (ref. PersistentBoard.sharesRow()). The floating
+ *      blocks are drawn over the board by drawBlock(); the rows they covered are redrawn by the next drawBoard().
+ *
+ * Attributes:
+ *      pixels: the image's DataBufferByte array (row-major, stride bytes per pixel row); the board's region starts at
+ *          origin and is width by height pixels.
+ *      scanline: the pixel row being built; its gaps are always GAP_INDEX.
+ *      drawn: the version drawn last (null before the first drawBoard()).
+ *      overlaid: overlaid[y] is set if a floating block was drawn over row y since the last drawBoard().
+ *
+ * NOTE: not thread-safe; owned by whichever thread renders.
+ */
+public class BoardRaster {
+
+    /**
+     * The default geometry: BLOCK_DIMENSION pixels per cell, CELL_GAP between cells (as the grid of GraphicCells).
+     */
+    public final static int PITCH = GraphicsConstants.BLOCK_DIMENSION + GraphicsConstants.CELL_GAP;
+    public final static int WIDTH = widthOf(GraphicsConstants.BLOCK_DIMENSION, GraphicsConstants.CELL_GAP);
+    public final static int HEIGHT = heightOf(GraphicsConstants.BLOCK_DIMENSION, GraphicsConstants.CELL_GAP);
+
+    private final static byte GAP_INDEX = (byte) GraphicsConstants.PIECE_COLORS.length;
+    private final static IndexColorModel PALETTE = palette();
+
+    private final BufferedImage image;
+    private final byte[] pixels;
+    private final int stride;
+    private final int origin;
+    private final int tile;
+    private final int gap;
+    private final int pitch;
+    private final int width;
+    private final int height;
+    private final byte[] scanline;
+    private PersistentBoard drawn;
+    private final boolean[] overlaid;
+    private int redrawnRows;
+
+    /**
+     * A board of the default geometry in an image of its own.
+     */
+    public BoardRaster() {
+        this(newImage(WIDTH, HEIGHT), 0, 0, GraphicsConstants.BLOCK_DIMENSION, GraphicsConstants.CELL_GAP);
+    }
+
+    /**
+     * A board drawn into the region of the image whose upper left corner is (left, top).
+     * @param image made by newImage(); the region (widthOf(tile, gap) by heightOf(tile, gap) pixels) must lie inside it.
+     * @param tile pixels per cell (both ways).
+     * @param gap pixels between two cells.
+     */
+    public BoardRaster(BufferedImage image, int left, int top, int tile, int gap) {
+        this.image = image;
+        this.tile = tile;
+        this.gap = gap;
+        pitch = tile + gap;
+        width = widthOf(tile, gap);
+        height = heightOf(tile, gap);
+        if (left < 0 || top < 0 || left + width > image.getWidth() || top + height > image.getHeight()) {
+            throw new IllegalArgumentException("The board does not fit into the image at (" + left + ", " + top + ")");
+        }
+        pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        stride = image.getWidth();
+        origin = top * stride + left;
+        scanline = new byte[width];
+        Arrays.fill(scanline, GAP_INDEX);
+        overlaid = new boolean[GameConstants.ROWS];
+    }
+
+    /**
+     * @return an image for BoardRasters to draw into (indexed colours, the palette of the pieces), filled with the colour
+     *         of the gaps.
+     */
+    public static BufferedImage newImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, PALETTE);
+        Arrays.fill(((DataBufferByte) image.getRaster().getDataBuffer()).getData(), GAP_INDEX);
+        return image;
+    }
+
+    /**
+     * @return the width in pixels of a board with the given tile and gap.
+     */
+    public static int widthOf(int tile, int gap) {
+        return GameConstants.COLUMNS * (tile + gap) - gap;
+    }
+
+    public static int heightOf(int tile, int gap) {
+        return GameConstants.ROWS * (tile + gap) - gap;
+    }
+
+    /**
+     * Draws the settled blocks of the version: the rows it does not share with the version drawn before and those
+     *      floating blocks were drawn over.
+     */
+    public void drawBoard(PersistentBoard board) {
+        redrawnRows = 0;
+        for (int y = GameConstants.MINIMUM_Y; y <= GameConstants.MAXIMUM_Y; y++) {
+            if (drawn == null || overlaid[y] || !board.sharesRow(drawn, y)) {
+                drawRow(board, y);
+                overlaid[y] = false;
+                redrawnRows++;
+            }
+        }
+        drawn = board;
+    }
+
+    /**
+     * Draws a (floating) block over the board.
+     * @param lift pixels the block is drawn above its cell (0 to the pitch; a block sliding down from the row above).
+     */
+    public void drawBlock(int x, int y, byte piece, int lift) {
+        int top = y * pitch - lift;
+        int from = Math.max(0, top);
+        int to = Math.min(height, top + tile);
+        int left = origin + x * pitch;
+        for (int pixelRow = from; pixelRow < to; pixelRow++) {
+            int offset = left + pixelRow * stride;
+            Arrays.fill(pixels, offset, offset + tile, piece);
+        }
+        overlaid[y] = true;
+        if (lift > 0 && y > GameConstants.MINIMUM_Y) {
+            overlaid[y - 1] = true;
+        }
+    }
+
+    /**
+     * @return the image drawn into (shared with other boards if it was passed in).
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * @return the rows the last drawBoard() redrew.
+     */
+    public int getRedrawnRows() {
+        return redrawnRows;
+    }
+
+    /**
+     * Draws row y (and resets the gap above it, which a sliding block may have been drawn over).
+     */
+    private void drawRow(PersistentBoard board, int y) {
+        for (int x = GameConstants.MINIMUM_X; x <= GameConstants.MAXIMUM_X; x++) {
+            int left = x * pitch;
+            Arrays.fill(scanline, left, left + tile, board.getPiece(x, y));
+        }
+        int top = y * pitch;
+        for (int pixelRow = Math.max(0, top - gap); pixelRow < top; pixelRow++) {
+            int offset = origin + pixelRow * stride;
+            Arrays.fill(pixels, offset, offset + width, GAP_INDEX);
+        }
+        for (int pixelRow = top; pixelRow < top + tile; pixelRow++) {
+            System.arraycopy(scanline, 0, pixels, origin + pixelRow * stride, width);
+        }
+    }
+
+    /**
+     * @return the palette: index i is the colour of piece id i, GAP_INDEX that of the gaps.
+     */
+    private static IndexColorModel palette() {
+        int size = GraphicsConstants.PIECE_COLORS.length + 1;
+        byte[] red = new byte[size];
+        byte[] green = new byte[size];
+        byte[] blue = new byte[size];
+        for (int i = 0; i < size; i++) {
+            Color color = (i == GAP_INDEX) ? GraphicsConstants.GAP_COLOR : GraphicsConstants.PIECE_COLORS[i];
+            red[i] = (byte) color.getRed();
+            green[i] = (byte) color.getGreen();
+            blue[i] = (byte) color.getBlue();
+        }
+        return new IndexColorModel(8, size, red, green, blue);
+    }
+}
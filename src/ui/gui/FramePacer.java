@@ -0,0 +1,32 @@
+package ui.gui;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a render loop at a fixed frame rate: every frame is due one period after the previous one was due (so the rate
+ *      does not drift with the time each frame takes), and a loop that falls more than a period behind skips ahead
+ *      rather than rendering a burst of frames to catch up.
+ */
+class FramePacer {
+
+    private final long periodNanos;
+    private long next;
+
+    FramePacer(int framesPerSecond) {
+        periodNanos = 1_000_000_000L / framesPerSecond;
+        next = System.nanoTime();
+    }
+
+    /**
+     * Waits until the next frame is due (returns early if the thread is unparked).
+     */
+    void awaitNextFrame() {
+        next += periodNanos;
+        long now = System.nanoTime();
+        if (now - next > periodNanos) {
+            next = now;
+        } else if (next > now) {
+            LockSupport.parkNanos(this, next - now);
+        }
+    }
+}
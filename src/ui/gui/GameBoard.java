@@ -1,9 +1,26 @@
 package ui.gui;
 
+import checkpoint.Checkpointer;
 import classes.GameConstants;
+import classes.events.GameEvent;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.BlockCluster;
 import classes.gameSpace.Container;
+import leaderboard.Leaderboard;
+import metrics.InputLatencyTracker;
+import metrics.RenderPassEvent;
+import metrics.StartupTimeline;
+import metrics.TickMetrics;
+import metrics.TickProbe;
+import metrics.TickPhase;
+import ui.managers.AutoShift;
+import ui.managers.Generator;
+import ui.managers.GravityScheduler;
+import ui.managers.GravityTimer;
+import ui.managers.InputQueue;
 import ui.managers.PossibleUserInput;
 import ui.managers.Updater;
+import ui.managers.WarmUp;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,6 +29,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.util.ArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GameBoard Class is the visual depiction of this Tetris implementation i.e. its graphical counterpart
@@ -24,27 +43,66 @@ import java.util.ArrayList;
  *      One is the welcome Frame
  *      Second is the main Frame wherein the game transpires
  *      Third is the termination Frame where we bid you adieu.
+ *      The main Frame is built in the background whilst the welcome Frame is shown (ref. prebuildMainFrame()).
  *
  */
 public class GameBoard {
 
     /** Attributes are expounded on unorthodoxly */
 
+    /**
+     * Whether the diagnostics of the GUI game are printed on stdout (-Dtetris.verbose=true, ref. report()); by default
+     *      nothing is, the HUD (H) shows the live figures.
+     */
+    private final static boolean VERBOSE = Boolean.getBoolean("tetris.verbose");
+
     /**
      *  For the implementation of the pause functionality. Press space.
      */
     private boolean pause = false;
 
     /**
-     * Inner timer for the game cycle.
+     * Set from beginGame() until terminate(); the mainFrame is merely hidden in between, to be reused by playAgain().
+     */
+    private boolean playing = false;
+
+    /**
+     * Gravity ticks of the game cycle; fired by the shared GravityScheduler onto the event dispatch thread.
+     * Is null until beginGame().
+     */
+    private GravityTimer gravity;
+
+    /**
+     * The game loop (ref. frame()), likewise on the event dispatch thread; dirty is set whenever the game changed
+     *      since the previous frame was rendered.
+     */
+    private GravityTimer frames;
+    private boolean dirty;
+
+    /**
+     * User actions queued by the KeyListener for the game loop; inputSink applies them (kept so as not to allocate a
+     *      method reference every frame).
+     */
+    private final InputQueue inputQueue = new InputQueue(GameConstants.INPUT_QUEUE_CAPACITY);
+    private final InputQueue.Sink inputSink = this::applyInput;
+
+    /**
+     * Delayed auto shift and auto-repeat rate of LEFT and RIGHT, in milliseconds (system properties tetris.das and
+     *      tetris.arr; an ARR of 0 moves straight to the wall).
      */
-    private Timer timer;
+    private final AutoShift autoShift = new AutoShift(Updater.getInstance(),
+            Long.getLong("tetris.das", GameConstants.DAS_DELAY), Long.getLong("tetris.arr", GameConstants.ARR_DELAY));
 
     /**
      * The welcome frame, frame 1; its members are temporary.
      */
     private JFrame welcomeFrame;
 
+    /**
+     * Warms up the JIT on a throwaway game whilst the welcome frame is shown (null if disabled with -Dtetris.warmup=false).
+     */
+    private WarmUp warmUp;
+
     /**
      * mainFrame has two panels upper, gridPanel (with grid) and lower panel, panelForScore.
      * lower panel has flow layout; scoreDisplay area is a part thereof.
@@ -58,6 +116,55 @@ public class GameBoard {
     private JPanel panelForScore;
     JTextArea scoreDisplayArea;
 
+    /**
+     * Set once the mainFrame is completely built (ref. prebuildMainFrame()); it is shown by initialiseMainFrame().
+     */
+    private boolean mainFrameBuilt;
+
+    /**
+     * In the active rendering mode (-Dtetris.render=active) the board is the canvas, drawn at the display's frame rate
+     *      by a render thread of its own, instead of the gridPanel (canvas is null otherwise; ref. ActiveBoardCanvas).
+     *      inputSinceRender is set if a user action changed the game since the previous render (i.e. not gravity alone).
+     */
+    private ActiveBoardCanvas canvas;
+    private boolean inputSinceRender;
+
+    /**
+     * In the raster rendering mode (-Dtetris.render=raster) the board is a single component drawn from an indexed-colour
+     *      image instead of the gridPanel (null otherwise; ref. RasterBoardPanel).
+     */
+    private RasterBoardPanel rasterPanel;
+
+    /**
+     * Set by the first gravity tick; firstTickUnrendered until the frame rendering it completes the StartupTimeline.
+     */
+    private boolean ticked;
+    private boolean firstTickUnrendered;
+
+    /**
+     * The score as last announced by the game's events, and the subscription to them (ref. GameEventSubscriber).
+     */
+    private int score;
+    private Flow.Subscription gameEvents;
+
+    /**
+     * Optional HUD next to the scoreDisplayArea (toggled with H): ticks per second, tick time, bytes allocated per tick
+     *      and the number of GCs, as measured by tickProbe around every gravity tick, and the input latency.
+     */
+    private JTextArea hudDisplayArea;
+    private final TickProbe tickProbe = new TickProbe();
+
+    /**
+     * Latency from each key event to the resulting paint (shown on the HUD; summarised at termination, ref. report()).
+     */
+    private final InputLatencyTracker inputLatency = new InputLatencyTracker();
+
+    /**
+     * Saves the game every CHECKPOINT_INTERVAL gravity ticks so that it may be resumed after a crash (ref. main.Main);
+     *      the checkpoint is discarded once the game is over. Is null until beginGame().
+     */
+    private Checkpointer checkpoints;
+
     /**
      * The hasta-la-vista frame. Its components are temporary.
      */
@@ -68,6 +175,7 @@ public class GameBoard {
      * Constructor.
      */
     public GameBoard() {
+        score = Container.getInstance().getScore(); // not 0 if a checkpointed game was resumed.
          // first have the initialFrame for welcoming them. Ask them to click on a button to proceed.
         initialiseWelcomingFrame();
     }
@@ -141,62 +249,167 @@ public class GameBoard {
         welcomeFrame.setLocationRelativeTo(null);
         welcomeFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         welcomeFrame.setVisible(true);
+        StartupTimeline.getInstance().mark("welcome frame shown");
+
+        warmUp = WarmUp.start();
+        prebuildMainFrame();
+    }
+
+    /**
+     * Builds the mainFrame in the background whilst the welcome frame is shown, in stages (ref. buildMainFrameStage()),
+     *      so that a click merely has to show it.
+     */
+    private void prebuildMainFrame() {
+        EventQueue.invokeLater(this::buildMainFrameStage);
+    }
+
+    /**
+     * One stage of building the mainFrame (on the event dispatch thread); queues the next stage behind whatever else the
+     *      event dispatch thread has to do, hence the welcome frame stays responsive. Does nothing once the mainFrame
+     *      has been built (e.g. by initialiseMainFrame() after an early click).
+     */
+    private void buildMainFrameStage() {
+        if (mainFrameBuilt) {
+            return;
+        }
+        buildNextStage();
+        if (mainFrameBuilt) {
+            StartupTimeline.getInstance().mark("main frame pre-built");
+        } else {
+            EventQueue.invokeLater(this::buildMainFrameStage);
+        }
     }
 
     /**
-     * Frame where all the substantial graphics portions is handled. This method INITIALISES the frame:
-     *          it populates the grid and forms the association with the gridPanel (which has gridLayout).
+     * Frame where all the substantial graphics portions is handled. This method SHOWS the frame: it is normally built
+     *          already (ref. prebuildMainFrame()); whatever stages are left are built here and now.
      *
      *          Note the invocations at the bottom: initialiseGameCycle() and beginGame(). These are salient.
      */
     private void initialiseMainFrame() {
+        StartupTimeline timeline = StartupTimeline.getInstance();
+        timeline.mark("play requested");
+        if (warmUp != null) {
+            warmUp.stop();
+            report(warmUp.summary());
+            warmUp = null;
+            timeline.mark("JIT warm-up stopped");
+        }
+
+        while (!mainFrameBuilt) {
+            buildNextStage();
+        }
+
+        if (canvas == null) {
+            RepaintManager.setCurrentManager(new PaintObservingRepaintManager(inputLatency::painted));
+        }
+
+        mainFrame.setVisible(true);
+        timeline.mark("main frame shown");
+
+        initialiseGameCycle();
+
+        beginGame();
+    }
+
+    /**
+     * Builds the next stage of the mainFrame: first the frame and its panels, then PREBUILD_ROWS_PER_STAGE rows of the
+     *      grid at a time and lastly the first render of the board (a resumed game has blocks already) and the layout.
+     */
+    private void buildNextStage() {
+        if (mainFrame == null) {
+            createMainFrame();
+        } else if (canvas == null && rasterPanel == null && grid.size() < GameConstants.ROWS) {
+            populateGraphicGrid(GraphicsConstants.PREBUILD_ROWS_PER_STAGE);
+        } else {
+            render();
+            mainFrame.pack();
+            mainFrame.setResizable(false);
+            mainFrameBuilt = true;
+        }
+    }
+
+    /**
+     * The mainFrame with its panels, but as yet without the GraphicCells of the grid.
+     */
+    private void createMainFrame() {
         mainFrame = new JFrame("Tetris");
         //mainFrame.setLocationRelativeTo(null);
         mainFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE); // >>> Syntax
 
         // rows and columns are determined by the Constants;
-        gridPanel = new JPanel(new GridLayout(GameConstants.ROWS, GameConstants.COLUMNS, 3, 3));
+        gridPanel = new JPanel(new GridLayout(GameConstants.ROWS, GameConstants.COLUMNS, GraphicsConstants.CELL_GAP, GraphicsConstants.CELL_GAP));
         gridPanel.setBackground(Color.gray);
 
         grid = new ArrayList<>();
-        Container.getInstance().populateGraphicGrid(grid);
 
-        for (int r = GameConstants.MINIMUM_Y; r <= GameConstants.MAXIMUM_Y; r++) {
-            for (int c = GameConstants.MINIMUM_X; c <= GameConstants.MAXIMUM_X; c++) {
-                gridPanel.add(grid.get(r).get(c));
+        switch (System.getProperty("tetris.render", "cells")) {
+            case "active" -> {
+                canvas = new ActiveBoardCanvas(inputLatency::painted);
+                mainFrame.add(canvas);
+            }
+            case "raster" -> {
+                rasterPanel = new RasterBoardPanel();
+                mainFrame.add(rasterPanel);
+            }
+            default -> {
+                mainFrame.add(gridPanel);
             }
         }
 
-        mainFrame.add(gridPanel);
-
         panelForScore = new JPanel();
 
-        scoreDisplayArea = new JTextArea("SCORE: " + GameConstants.SCORE);
+        scoreDisplayArea = new JTextArea("SCORE: " + score);
         scoreDisplayArea.setFont(new Font("Sans Serif", Font.BOLD, 30));
         scoreDisplayArea.setBackground(Color.gray);
         scoreDisplayArea.setForeground(Color.white);
         scoreDisplayArea.setEditable(false);
         scoreDisplayArea.setFocusable(false);
 
+        hudDisplayArea = new JTextArea(tickProbe.hudText() + "\n" + inputLatency.liveText());
+        hudDisplayArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        hudDisplayArea.setBackground(Color.gray);
+        hudDisplayArea.setForeground(Color.white);
+        hudDisplayArea.setEditable(false);
+        hudDisplayArea.setFocusable(false);
+        hudDisplayArea.setVisible(false);
+
         panelForScore.setBackground(Color.gray);
         panelForScore.add(scoreDisplayArea);
+        panelForScore.add(hudDisplayArea);
 
         mainFrame.add(panelForScore, BorderLayout.SOUTH);
+    }
 
-        mainFrame.pack();
-        mainFrame.setResizable(false);
-        mainFrame.setVisible(true);
-
-        initialiseGameCycle();
 
-        beginGame();
+    /**
+     * Populates the next (at most) count rows of the grid with GraphicCells, each referring to the coordinates of a cell
+     *      of the Container (whose settled blocks are an immutable version that is replaced, not a grid of cells that could
+     *      be held), and adds them to the gridPanel (whose GridLayout fills row by row).
+     *
+     * Is part of the GUI rather than the Container so that the engine (packages classes and ui.managers) does not depend
+     *      on AWT/Swing at all and can run headless (-Djava.awt.headless=true).
+     */
+    private void populateGraphicGrid(int count) {
+        int end = Math.min(grid.size() + count, GameConstants.ROWS);
+        for (int row = grid.size(); row < end; row++) {
+            ArrayList<GraphicCell> graphicRow = new ArrayList<>();
+            for (int column = GameConstants.MINIMUM_X; column <= GameConstants.MAXIMUM_X; column++) {
+                GraphicCell graphicCell = new GraphicCell(column, GameConstants.MINIMUM_Y + row);
+                graphicRow.add(graphicCell);
+                gridPanel.add(graphicCell);
+            }
+            grid.add(graphicRow);
+        }
     }
 
-
     /**
      * As the name suggests: is responsible for the initialisation of all the action listeners (mainly the KeyListener for
-     *              the mainFrame) and for initiating the timer.
+     *              the mainFrame); the gravity ticks and frames are scheduled by beginGame().
      *
+     * The KeyListener does not touch the game: it merely queues the user's actions (stamped with System.nanoTime()) in
+     *              inputQueue. The game loop (ref. frame()) applies them, in order, and renders once per frame however
+     *              many arrived (OS key-repeat bursts would otherwise cause a full-board render each).
      *
      * For a coherent exposition on the game cycle kindly refer to the README file.
      *
@@ -205,88 +418,35 @@ public class GameBoard {
         mainFrame.addKeyListener(new KeyListener() {
             @Override
             public void keyTyped(KeyEvent e) {
-                if (!pause) {
-                    switch (e.getKeyCode()) {
-                        case KeyEvent.VK_A -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.LEFT);
-                        }
-                        case KeyEvent.VK_D -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.RIGHT);
-                        }
-                        case KeyEvent.VK_S -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.DOWN);
-                        }
-                        case KeyEvent.VK_Q -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.ROTATE_LEFT);
-                        }
-                        case KeyEvent.VK_E -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.ROTATE_RIGHT);
-                        }
-                    }
-                    Container.getInstance().amalgamateGraphics();
-                    updateDisplayGrid();
-                    Container.getInstance().unamalgamateGraphics();
-
-                    checkForTermination();
-                }
-                switch (e.getKeyCode()) {
-                    case KeyEvent.VK_ESCAPE -> {
-                        terminate();
-                    }
-                    case KeyEvent.VK_SPACE -> {
-                        if (pause) {
-                            pause = false;
-                            timer.start();
-
-                        } else {
-                            pause = true;
-                            timer.stop();
-                        }
-                    }
-                }
+                // key typed events carry no key code (VK_UNDEFINED); everything is handled in keyPressed().
             }
 
             @Override
             public void keyPressed(KeyEvent e) {
                 if (!pause) {
-                    switch (e.getKeyCode()) {
-                        case KeyEvent.VK_A -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.LEFT);
-                        }
-                        case KeyEvent.VK_D -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.RIGHT);
-                        }
-                        case KeyEvent.VK_S -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.DOWN);
-                        }
-                        case KeyEvent.VK_Q -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.ROTATE_LEFT);
-                        }
-                        case KeyEvent.VK_E -> {
-                            Updater.getInstance().updateGeneral(PossibleUserInput.ROTATE_RIGHT);
-                        }
+                    PossibleUserInput userAction = toUserInput(e.getKeyCode());
+                    if (userAction != null) {
+                        inputQueue.offer(userAction, false);
+                        publishNow();
                     }
-                    /**
-                     * This is a delicate spot. Please refer to the documentation of amalgamateGraphics() and revise the notion of a floating object.
-                     */
-                    Container.getInstance().amalgamateGraphics();
-                    updateDisplayGrid();
-                    Container.getInstance().unamalgamateGraphics();
-
-                    checkForTermination();
                 }
                 switch (e.getKeyCode()) {
                     case KeyEvent.VK_ESCAPE -> {
                         terminate();
                     }
+                    case KeyEvent.VK_H -> {
+                        hudDisplayArea.setVisible(!hudDisplayArea.isVisible());
+                        mainFrame.pack();
+                    }
                     case KeyEvent.VK_SPACE -> {
                         if (pause) {
                             pause = false;
-                            timer.start();
+                            gravity.resume();
 
                         } else {
                             pause = true;
-                            timer.stop();
+                            gravity.pause();
+                            autoShift.releaseAll();
                         }
                     }
                 }
@@ -294,69 +454,284 @@ public class GameBoard {
 
             @Override
             public void keyReleased(KeyEvent e) {
-
+                PossibleUserInput userAction = toUserInput(e.getKeyCode());
+                if (userAction != null && AutoShift.repeats(userAction)) {
+                    inputQueue.offer(userAction, true); // even whilst paused: ends the auto-repeat.
+                    publishNow();
+                }
             }
         });
-        timer = new Timer(GraphicsConstants.DELAY, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                Updater.getInstance().updateDefault();
 
-                Container.getInstance().amalgamateGraphics();
-                updateDisplayGrid();
-                Container.getInstance().unamalgamateGraphics();
+    }
 
-                updateScoreDisplay();
+    /**
+     * @return the user action bound to the key; null if none is.
+     */
+    private static PossibleUserInput toUserInput(int keyCode) {
+        return switch (keyCode) {
+            case KeyEvent.VK_A -> PossibleUserInput.LEFT;
+            case KeyEvent.VK_D -> PossibleUserInput.RIGHT;
+            case KeyEvent.VK_S -> PossibleUserInput.DOWN;
+            case KeyEvent.VK_Q -> PossibleUserInput.ROTATE_LEFT;
+            case KeyEvent.VK_E -> PossibleUserInput.ROTATE_RIGHT;
+            default -> null;
+        };
+    }
 
-                checkForTermination();
+    /**
+     * Prints a diagnostic (e.g. the JIT warm-up summary) if -Dtetris.verbose=true, and nothing otherwise.
+     */
+    private static void report(String diagnostic) {
+        if (VERBOSE) {
+            System.out.println(diagnostic.stripTrailing());
+        }
+    }
+
+    /**
+     * A gravity tick (on the event dispatch thread). Only updates the game; the next frame renders it (at once in the
+     *      active rendering mode, ref. publishNow()).
+     */
+    private void tick() {
+        if (gravity.isPaused() || !playing) {
+            return; // was already queued when paused or terminated.
+        }
+        tickProbe.beginTick();
+        Updater.getInstance().updateDefault();
+        tickProbe.endTick();
+        checkpoints.tick();
+        dirty = true;
+        if (!ticked) {
+            ticked = true;
+            firstTickUnrendered = true;
+            StartupTimeline.getInstance().mark("first gravity tick");
+        }
+        publishNow();
+    }
+
+    /**
+     * In the active rendering mode the render thread draws at the display's frame rate whatever was published last, so
+     *      the game is published as soon as a gravity tick or a key changed it rather than on the next FRAME_DELAY
+     *      frame, which would delay it by up to FRAME_DELAY. The frames still run the auto-repeat.
+     */
+    private void publishNow() {
+        if (canvas != null) {
+            frame();
+        }
+    }
+
+    /**
+     * The game loop, once per FRAME_DELAY (on the event dispatch thread): applies the queued user actions and, if
+     *      anything changed since the previous frame, renders once.
+     */
+    private void frame() {
+        if (!playing) {
+            return;
+        }
+        inputQueue.drain(inputSink);
+        if (!pause && autoShift.update(System.nanoTime()) > 0) {
+            dirty = true;
+            inputSinceRender = true;
+        }
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        render();
+        inputLatency.rendered();
+        if (firstTickUnrendered) {
+            firstTickUnrendered = false;
+            String startup = StartupTimeline.getInstance().finish("first gravity tick rendered");
+            if (startup != null) {
+                report(startup);
             }
-        });
+        }
 
+        if (hudDisplayArea.isVisible()) {
+            hudDisplayArea.setText(tickProbe.hudText() + "\n" + inputLatency.liveText());
+        }
+    }
+
+    /**
+     * Applies a queued user action (discarded if the game was paused since it was queued). LEFT and RIGHT go through
+     *      autoShift, which repeats them whilst held.
+     */
+    private void applyInput(PossibleUserInput userAction, boolean released, long nanos) {
+        if (released) {
+            autoShift.release(userAction, nanos);
+            return;
+        }
+        if (pause || !playing) {
+            return;
+        }
+        inputLatency.received(nanos);
+        if (AutoShift.repeats(userAction)) {
+            autoShift.press(userAction, nanos);
+        } else {
+            Updater.getInstance().updateGeneral(userAction);
+        }
+        inputLatency.applied();
+        dirty = true;
+        inputSinceRender = true;
     }
 
     /**
-     * Checks if the Container instance set the gameOver flag as after the invocation of hasSpaceDown() by the two update() methods.
-     * If it is set: the termination frame is instantiated.
+     * Subscriber to the events of the game (on the event dispatch thread): rows cleared update the score display and the
+     *      game being over (as set by hasSpaceDown()) instantiates the termination frame. Nothing is polled.
      */
-    private void checkForTermination() {
-        if (GameConstants.GAME_OVER) {
-            terminate();
+    private class GameEventSubscriber implements Flow.Subscriber<GameEvent> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            gameEvents = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(GameEvent event) {
+            switch (event) {
+                case GameEvent.RowsCleared rowsCleared -> {
+                    updateScoreDisplay(rowsCleared.score());
+                }
+                case GameEvent.GameOver gameOver -> {
+                    score = gameOver.score();
+                    terminate();
+                }
+                default -> {
+                    // spawns, movements and locks are rendered by the game loop.
+                }
+            }
+        }
+
+        /**
+         * Only a misused subscription (a non-positive request, ref. GameEventPublisher) ends in an error; it is a
+         *      diagnostic like the others (ref. report()), not a stack trace on every player's console.
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            report("Game events ended: " + throwable);
+        }
+
+        @Override
+        public void onComplete() {
+
         }
     }
 
     /**
-     * Updates the scoreDisplay.
+     * Updates the scoreDisplay and, every ROWS_PER_SPEED_LEVEL rows, the speed level.
      */
-    private void updateScoreDisplay() {
-        scoreDisplayArea.setText("SCORE: " + GameConstants.SCORE);
+    private void updateScoreDisplay(int newScore) {
+        score = newScore;
+        scoreDisplayArea.setText("SCORE: " + score);
+        int level = score / GameConstants.ROWS_PER_SPEED_LEVEL;
+        if (level != gravity.getSpeedLevel()) {
+            gravity.setSpeedLevel(level);
+        }
     }
 
     /**
      * CAVEAT: The game actually begins the moment the mainFrame has been instantiated, but the blocks start
-     *      cascading after the timer.
+     *      cascading after the first gravity tick.
      */
     private void beginGame() {
-        timer.start();
+        playing = true;
+        Container.getInstance().getEvents().subscribe(new GameEventSubscriber(), EventQueue::invokeLater);
+        gravity = GravityScheduler.getInstance().schedule(latenessNanos -> tick(), EventQueue::invokeLater);
+        frames = GravityScheduler.getInstance().schedule(latenessNanos -> frame(), EventQueue::invokeLater,
+                GameConstants.FRAME_DELAY, TimeUnit.MILLISECONDS);
+        gravity.setSpeedLevel(score / GameConstants.ROWS_PER_SPEED_LEVEL);
+        checkpoints = new Checkpointer(Checkpointer.defaultFile(), Container.getInstance(), Generator.getInstance(),
+                GameConstants.CHECKPOINT_INTERVAL).start();
+        if (canvas != null) {
+            canvas.start();
+        }
+    }
+
+    /**
+     * Renders the game: publishes it to the canvas in the active rendering mode, draws it into the rasterPanel in the
+     *      raster mode and updates the GraphicCells otherwise.
+     */
+    private void render() {
+        if (canvas != null) {
+            long slideNanos = (gravity == null) ? 0 : TimeUnit.MILLISECONDS.toNanos(GravityTimer.delayOfLevel(gravity.getSpeedLevel()));
+            long slideStart = (gravity == null) ? System.nanoTime() : gravity.getDueNanos();
+            canvas.publish(Container.getInstance(), !inputSinceRender, slideStart, slideNanos);
+            inputSinceRender = false;
+            return;
+        }
+        if (rasterPanel != null) {
+            RenderPassEvent event = new RenderPassEvent();
+            event.begin();
+            long start = System.nanoTime();
+            rasterPanel.render(Container.getInstance());
+            TickMetrics.getInstance().record(TickPhase.RENDER, start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.cells = rasterPanel.getRedrawnRows() * GameConstants.COLUMNS;
+                event.commit();
+            }
+            return;
+        }
+        updateDisplayGrid();
     }
 
     /**
      * Invokes the update method on all the GraphicCells which results in the grids color corresponding to the underlying
-     * data (remember GraphicCells store a reference to a Block (which can be null) Refer to constructor.
+     * data (remember GraphicCells store a reference to a Block (which can be null) Refer to constructor, then draws the
+     * "floating" BlockClusters over them (ref. overlayFloatingClusters()).
      */
     public void updateDisplayGrid() {
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        long start = System.nanoTime();
         for (ArrayList<GraphicCell> row: grid) {
             for (GraphicCell graphicCell: row) {
                 graphicCell.update();
             }
         }
+        overlayFloatingClusters();
+        TickMetrics.getInstance().record(TickPhase.RENDER, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cells = GameConstants.ROWS * GameConstants.COLUMNS;
+            event.commit();
+        }
     }
 
     /**
-     * Termination routine. Simply displays the Score and a goodbye message.
+     * Colours the GraphicCells under the blocks of the floating BlockClusters. These are not in the Container's cells (ref.
+     *      Block), so the Container is left untouched: no version of the board is made just to be drawn.
+     */
+    private void overlayFloatingClusters() {
+        for (BlockCluster cluster : Container.getInstance().getFloatingClusters()) {
+            for (Block block : cluster.getAllBlocks()) {
+                int row = (block == null) ? -1 : block.getyCoord() - GameConstants.MINIMUM_Y;
+                if (row >= 0 && row < grid.size()) {
+                    grid.get(row).get(block.getxCoord() - GameConstants.MINIMUM_X).overlay(block.getPiece());
+                }
+            }
+        }
+    }
+
+    /**
+     * Termination routine. Simply displays the Score, a goodbye message and the way to play again (ref. playAgain()).
      */
     public void terminate() {
-        mainFrame.dispose();
-        timer.stop();
+        if (!playing) {
+            return; // already terminated.
+        }
+        playing = false;
+        mainFrame.setVisible(false); // kept (with its grid) for playAgain().
+        gravity.cancel();
+        frames.cancel();
+        gameEvents.cancel();
+        checkpoints.discard();
+        report(inputLatency.summary());
+        if (canvas != null) {
+            canvas.stop();
+            report(canvas.summary());
+        }
 
         terminationFrame = new JFrame("Tetris");
         // terminationFrame.setLocationRelativeTo(null);
@@ -365,16 +740,76 @@ public class GameBoard {
         JPanel terminationPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 50, 50));
         terminationPanel.setBackground(Color.white);
 
-        JLabel terminationText = new JLabel("Game Over! SCORE: " +  String.valueOf(GameConstants.SCORE)); // could use html tags
+        JLabel terminationText = new JLabel("Game Over! SCORE: " +  String.valueOf(score)); // could use html tags
         terminationText.setFont(new Font("Sans Serif", Font.BOLD, 30));
         terminationText.setForeground(Color.black);
         terminationText.setBackground(Color.white);
 
 
+        JButton playAgainButton = new JButton("PLAY AGAIN");
+        playAgainButton.setBackground(Color.orange);
+        playAgainButton.setFont(new Font("Sans Serif", Font.BOLD, 30));
+        playAgainButton.addActionListener(e -> playAgain());
+
         terminationPanel.add(terminationText);
+        terminationPanel.add(leaderboardText());
+        terminationPanel.add(playAgainButton);
 
         terminationFrame.add(terminationPanel);
         terminationFrame.pack();
         terminationFrame.setVisible(true);
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts a new game in place (on the event dispatch thread): the board, the Generator and the score are reset and the
+     *      hidden mainFrame, its grid and the key listener are reused, so no frame is built and nothing is warmed up
+     *      again; only the ticks are scheduled anew (ref. beginGame()).
+     */
+    public void playAgain() {
+        if (playing) {
+            return;
+        }
+        long start = System.nanoTime();
+        terminationFrame.dispose();
+
+        Container.getInstance().clear();
+        Generator.getInstance().reseed();
+        Updater.getInstance().resynchronise();
+
+        inputQueue.drain(inputSink); // keys of the previous game (releases still end their auto-repeat).
+        autoShift.releaseAll();
+        pause = false;
+        score = 0;
+        scoreDisplayArea.setText("SCORE: " + score);
+
+        render();
+        mainFrame.setVisible(true);
+
+        beginGame();
+        report(String.format("New game in %.1f ms", (System.nanoTime() - start) / 1e6));
+    }
+
+    /**
+     * Puts the score onto the leaderboard (the entry survives the process dying at once; getting it onto the disk is
+     *      left to a background thread).
+     * @return a label with the rank of the score and the top LEADERBOARD_SHOWN entries (or why there is none).
+     */
+    private JLabel leaderboardText() {
+        StringBuilder text = new StringBuilder("<html>");
+        try {
+            Leaderboard leaderboard = Leaderboard.getInstance();
+            int rank = leaderboard.submit(System.getProperty("user.name", "player"), score);
+            Thread.ofVirtual().name("leaderboard-force").start(leaderboard::force); // an msync: not on the EDT.
+            text.append("RANK ").append(rank).append(" OF ").append(leaderboard.size()).append("<br><br>");
+            for (Leaderboard.Entry entry : leaderboard.top(GraphicsConstants.LEADERBOARD_SHOWN)) {
+                text.append(entry.rank()).append(". ").append(entry.name()).append(" ").append(entry.score()).append("<br>");
+            }
+        } catch (RuntimeException e) {
+            text.append("The leaderboard is unavailable: ").append(e.getMessage());
+        }
+        JLabel leaderboardText = new JLabel(text.append("</html>").toString());
+        leaderboardText.setFont(new Font("Sans Serif", Font.PLAIN, 16));
+        leaderboardText.setForeground(Color.black);
+        return leaderboardText;
+    }
+}
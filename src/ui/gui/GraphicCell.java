@@ -1,19 +1,21 @@
 package ui.gui;
 
-import classes.gameSpace.CellSpatialUnit;
+import classes.gameSpace.Container;
 
 import javax.swing.*;
 import java.awt.*;
 
 /**
- * Primary contained class for the grid for the GUI. Contains a reference to the corresponding cell in the underlying
- * game container.
+ * Primary contained class for the grid for the GUI. Contains the coordinates of the corresponding cell in the underlying
+ * game container (whose settled blocks are replaced by a new version on every change, hence the coordinates).
  */
 public class GraphicCell extends JPanel {
-    private CellSpatialUnit cell;
+    private int xCoord;
+    private int yCoord;
 
-    public GraphicCell(CellSpatialUnit cell) {
-        this.cell = cell;
+    public GraphicCell(int x, int y) {
+        xCoord = x;
+        yCoord = y;
         setBackground(Color.white); // >>> initial should be white always since the board is emtpy
         setSize(GraphicsConstants.BLOCK_DIMENSION, GraphicsConstants.BLOCK_DIMENSION);
     }
@@ -21,18 +23,23 @@ public class GraphicCell extends JPanel {
     /**
      * testing
      */
-    public CellSpatialUnit getCell() {
-        return cell;
+    public boolean isOccupied() {
+        return Container.getInstance().isOccupied(xCoord, yCoord);
     }
 
     /**
-     * Updates the colour of the JPanel based on the state of the CellSpatialUnit it refers to.
+     * Updates the colour of the JPanel based on the state of the cell it refers to: the colour of the piece
+     *      occupying it (ref. GraphicsConstants.colorOf()), white if none does.
      */
     public void update() {
-        if (cell.isOccupied()) {
-            setBackground(Color.black);
-        } else {
-            setBackground(Color.white);
-        }
+        setBackground(GraphicsConstants.colorOf(Container.getInstance().getPiece(xCoord, yCoord)));
+    }
+
+    /**
+     * Colours the JPanel as the piece of a floating block over it (ref. GameBoard.updateDisplayGrid()), until the next
+     *      update().
+     */
+    public void overlay(byte piece) {
+        setBackground(GraphicsConstants.colorOf(piece));
     }
 }
@@ -1,5 +1,8 @@
 package ui.gui;
 
+import classes.GameConstants;
+import classes.gameObjects.Block;
+
 import java.awt.*;
 
 import static java.awt.Color.black;
@@ -9,6 +12,41 @@ import static java.awt.Color.black;
  */
 public class GraphicsConstants {
     public final static int BLOCK_DIMENSION = 10; // for the cells/blocks.
-    public final static int DELAY = 400; // for the timer
+    public final static int CELL_GAP = 3; // between the cells of the grid.
+    public final static int DELAY = GameConstants.GRAVITY_DELAY; // for the timer
     public final static Color BLOCK_COLOR = black;
+    public final static Color EMPTY_COLOR = Color.white;
+    public final static Color GAP_COLOR = Color.gray;
+    public final static int LEADERBOARD_SHOWN = 5; // entries on the termination frame.
+    public final static int ACTIVE_FRAME_RATE = 60; // of the active rendering mode if the display's refresh rate is unknown.
+    public final static int PREBUILD_ROWS_PER_STAGE = 4; // rows of GraphicCells built per event whilst the welcome frame is shown.
+
+    /**
+     * The spectator wall (ref. SpectatorWall): WALL_TILE pixels per cell and WALL_CELL_GAP between cells, WALL_SPACING
+     *      around every board and WALL_LABEL_HEIGHT under it for the score; WALL_FRAME_RATE frames a second. Its bot games
+     *      tick every WALL_GAME_DELAY milliseconds.
+     */
+    public final static int WALL_TILE = 2;
+    public final static int WALL_CELL_GAP = 0;
+    public final static int WALL_SPACING = 6;
+    public final static int WALL_LABEL_HEIGHT = 14;
+    public final static int WALL_FRAME_RATE = 60;
+    public final static int WALL_GAME_DELAY = 50;
+
+    /**
+     * The colour of each piece id (ref. Block.getPiece()): PIECE_COLORS[piece]. A block of no BlockCluster (PLAIN_PIECE)
+     *      is BLOCK_COLOR; every Form has a colour of its own (in the order of Forms).
+     */
+    public final static Color[] PIECE_COLORS = {
+            EMPTY_COLOR, BLOCK_COLOR,
+            Color.red, Color.orange, Color.yellow.darker(), Color.green.darker(), Color.cyan.darker(), Color.blue,
+            Color.magenta, Color.pink.darker(), new Color(128, 0, 128), new Color(139, 69, 19), new Color(0, 128, 128)
+    };
+
+    /**
+     * @return the colour of the piece id (BLOCK_COLOR if it has none).
+     */
+    public static Color colorOf(byte piece) {
+        return (piece >= Block.NO_PIECE && piece < PIECE_COLORS.length) ? PIECE_COLORS[piece] : BLOCK_COLOR;
+    }
 }
@@ -0,0 +1,28 @@
+package ui.gui;
+
+import javax.swing.*;
+
+/**
+ * A RepaintManager that reports when Swing has finished painting the dirty regions of a frame, i.e. when changes made to
+ *      the GraphicCells have actually been painted (used to measure input-to-display latency, ref.
+ *      metrics.InputLatencyTracker).
+ *
+ * Is installed for the whole application (RepaintManager.setCurrentManager()).
+ */
+public class PaintObservingRepaintManager extends RepaintManager {
+
+    private final Runnable afterPaint;
+
+    /**
+     * @param afterPaint invoked on the event dispatch thread after every painting of dirty regions.
+     */
+    public PaintObservingRepaintManager(Runnable afterPaint) {
+        this.afterPaint = afterPaint;
+    }
+
+    @Override
+    public void paintDirtyRegions() {
+        super.paintDirtyRegions();
+        afterPaint.run();
+    }
+}
@@ -0,0 +1,64 @@
+package ui.gui;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.BlockCluster;
+import classes.gameSpace.Container;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * The board as a single Swing component (-Dtetris.render=raster) in place of the grid of GraphicCells: render() draws
+ *      the game into a BoardRaster on the event dispatch thread and paintComponent() blits its image.
+ */
+public class RasterBoardPanel extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient BoardRaster raster;
+
+    public RasterBoardPanel() {
+        raster = new BoardRaster();
+    }
+
+    /**
+     * Draws the settled blocks (the rows that changed) and the floating BlockClusters, then asks for a repaint.
+     */
+    public void render(Container container) {
+        raster.drawBoard(container.getVersion());
+        for (BlockCluster cluster : container.getFloatingClusters()) {
+            for (Block block : cluster.getAllBlocks()) {
+                if (block != null && block.getyCoord() >= GameConstants.MINIMUM_Y) {
+                    raster.drawBlock(block.getxCoord(), block.getyCoord(), block.getPiece(), 0);
+                }
+            }
+        }
+        repaint();
+    }
+
+    /**
+     * @return the rows the last render() redrew.
+     */
+    public int getRedrawnRows() {
+        return raster.getRedrawnRows();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(BoardRaster.WIDTH, BoardRaster.HEIGHT);
+    }
+
+    /**
+     * @return true: paintComponent() covers every pixel.
+     */
+    @Override
+    public boolean isOpaque() {
+        return true;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        graphics.drawImage(raster.getImage(), 0, 0, null);
+    }
+}
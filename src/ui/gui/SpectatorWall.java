@@ -0,0 +1,342 @@
+package ui.gui;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.BlockCluster;
+import classes.gameSpace.Container;
+import classes.gameSpace.PersistentBoard;
+import metrics.LatencyHistogram;
+import ui.managers.Generator;
+import ui.managers.GravityScheduler;
+import ui.managers.PossibleUserInput;
+import ui.managers.Updater;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A monitoring view of many live games at once (e.g. 64 bot games in an 8 by 8 grid) in a single window.
+ *
+ * Watching costs a game next to nothing: after a tick, its thread merely publishes a View of it to its Slot (ref.
+ *      Slot.publish()), the board version (a PersistentBoard, handed over as is since it is immutable) plus the handful
+ *      of floating blocks. Everything else happens on the wall's render thread.
+ *
+ * The render thread draws every board into one shared texture atlas, a single indexed-colour image holding all the
+ *      boards side by side, each through a BoardRaster of its own. Only the boards whose View changed since the previous
+ *      frame are drawn at all (per-board dirty tracking), and of those only the rows that changed. Every board is then
+ *      blitted out of the atlas with one drawImage() and its score written underneath, WALL_FRAME_RATE times a second,
+ *      however fast the games tick.
+ *
+ * Attributes:
+ *      slots: one per board, in the order of the grid (row by row).
+ *      atlas: the image all the boards are drawn into (the board of slot i at (slot.left, slot.top)).
+ *      frameTimes: the time taken by each frame of the current second (ref. getStatus()).
+ *
+ * NOTE: the state is transient; the wall is never serialised.
+ */
+public class SpectatorWall extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    private final static String USAGE = "Usage: SpectatorWall [boards] [columns]      (64 boards, 8 columns by default)";
+
+    private final transient List<Slot> slots;
+    private final int columns;
+    private final transient BufferedImage atlas;
+    private final int boardWidth;
+    private final int boardHeight;
+    private final Font labelFont;
+
+    private transient Thread renderer;
+    private transient volatile boolean running;
+    private final transient LatencyHistogram frameTimes;
+    private transient volatile String status;
+
+    /**
+     * A board on the wall.
+     *
+     * Attributes:
+     *      view: the latest View (written by the game's thread, read by the render thread).
+     *      drawn: the View drawn into the atlas last (render thread only).
+     */
+    public static class Slot {
+        private final BoardRaster raster;
+        private final int left;
+        private final int top;
+        private volatile View view;
+        private View drawn;
+
+        private Slot(BoardRaster raster, int left, int top) {
+            this.raster = raster;
+            this.left = left;
+            this.top = top;
+            view = new View(PersistentBoard.EMPTY, new int[0], new byte[0], 0, 0);
+        }
+
+        /**
+         * Publishes the current state of the game to the wall; to be invoked by the game's thread (after a tick).
+         *      Costs a few small arrays for the floating blocks; the settled blocks are the Container's current version.
+         * @param games the number of games played in this slot so far (shown with the score).
+         */
+        public void publish(Container container, int games) {
+            ArrayList<BlockCluster> clusters = container.getFloatingClusters();
+            int count = 0;
+            for (BlockCluster cluster : clusters) {
+                for (Block block : cluster.getAllBlocks()) {
+                    if (block != null && block.getyCoord() >= GameConstants.MINIMUM_Y) {
+                        count++;
+                    }
+                }
+            }
+            int[] cells = new int[count];
+            byte[] pieces = new byte[count];
+            int n = 0;
+            for (BlockCluster cluster : clusters) {
+                for (Block block : cluster.getAllBlocks()) {
+                    if (block != null && block.getyCoord() >= GameConstants.MINIMUM_Y) {
+                        cells[n] = block.getyCoord() * GameConstants.COLUMNS + block.getxCoord();
+                        pieces[n] = block.getPiece();
+                        n++;
+                    }
+                }
+            }
+            view = new View(container.getVersion(), cells, pieces, container.getScore(), games);
+        }
+    }
+
+    /**
+     * A game as published to its Slot: the settled blocks, the floating blocks (cells[i] = y * COLUMNS + x) and the
+     *      score.
+     */
+    private record View(PersistentBoard board, int[] cells, byte[] pieces, int score, int games) {
+    }
+
+    /**
+     * @param boards the number of boards (slots) on the wall.
+     * @param columns boards per row of the wall.
+     * @throws IllegalArgumentException if either is not positive.
+     */
+    public SpectatorWall(int boards, int columns) {
+        if (boards <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("boards and columns must be positive: " + boards + ", " + columns);
+        }
+        this.columns = columns;
+        int rows = (boards + columns - 1) / columns;
+        boardWidth = BoardRaster.widthOf(GraphicsConstants.WALL_TILE, GraphicsConstants.WALL_CELL_GAP);
+        boardHeight = BoardRaster.heightOf(GraphicsConstants.WALL_TILE, GraphicsConstants.WALL_CELL_GAP);
+        atlas = BoardRaster.newImage(columns * boardWidth, rows * boardHeight);
+
+        slots = new ArrayList<>(boards);
+        for (int i = 0; i < boards; i++) {
+            int left = (i % columns) * boardWidth;
+            int top = (i / columns) * boardHeight;
+            BoardRaster raster = new BoardRaster(atlas, left, top, GraphicsConstants.WALL_TILE, GraphicsConstants.WALL_CELL_GAP);
+            slots.add(new Slot(raster, left, top));
+        }
+
+        labelFont = new Font(Font.MONOSPACED, Font.PLAIN, GraphicsConstants.WALL_LABEL_HEIGHT - 2);
+        frameTimes = new LatencyHistogram();
+        status = "";
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = (slots.size() + columns - 1) / columns;
+        return new Dimension(columns * cellWidth(), rows * cellHeight());
+    }
+
+    /**
+     * @return the slot of board i (counting row by row).
+     */
+    public Slot getSlot(int i) {
+        return slots.get(i);
+    }
+
+    /**
+     * @return e.g. "64 boards, 60 fps; 21.4 boards drawn per frame; frame time p50 0.6ms, p99 1.9ms" (for the last
+     *         second).
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Starts the render thread; the wall must be displayable (its frame packed or shown).
+     */
+    public void start() {
+        setBackground(Color.darkGray);
+        setIgnoreRepaint(true); // drawn by the render thread alone.
+        if (getBufferStrategy() == null) {
+            createBufferStrategy(2);
+        }
+        running = true;
+        renderer = new Thread(this::run, "spectator-wall");
+        renderer.setDaemon(true);
+        renderer.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        renderer.join();
+    }
+
+    private void run() {
+        FramePacer pacer = new FramePacer(GraphicsConstants.WALL_FRAME_RATE);
+        long windowStart = System.nanoTime();
+        int windowFrames = 0;
+        long windowBoards = 0;
+        while (running) {
+            long start = System.nanoTime();
+            windowBoards += updateAtlas();
+            render();
+            frameTimes.record(System.nanoTime() - start);
+            windowFrames++;
+
+            if (start - windowStart >= 1_000_000_000L) {
+                status = String.format("%d boards, %d fps; %.1f boards drawn per frame; frame time p50 %.1fms, p99 %.1fms",
+                        slots.size(), windowFrames, (double) windowBoards / windowFrames,
+                        frameTimes.getP50Micros() / 1000, frameTimes.getP99Micros() / 1000);
+                frameTimes.reset();
+                windowStart = start;
+                windowFrames = 0;
+                windowBoards = 0;
+            }
+            pacer.awaitNextFrame();
+        }
+    }
+
+    /**
+     * Draws the boards whose View changed since they were drawn last into the atlas.
+     * @return the number of boards drawn.
+     */
+    private int updateAtlas() {
+        int drawnBoards = 0;
+        for (Slot slot : slots) {
+            View view = slot.view;
+            if (view == slot.drawn) {
+                continue;
+            }
+            slot.raster.drawBoard(view.board());
+            for (int i = 0; i < view.cells().length; i++) {
+                slot.raster.drawBlock(view.cells()[i] % GameConstants.COLUMNS, view.cells()[i] / GameConstants.COLUMNS,
+                        view.pieces()[i], 0);
+            }
+            slot.drawn = view;
+            drawnBoards++;
+        }
+        return drawnBoards;
+    }
+
+    private void render() {
+        BufferStrategy strategy = getBufferStrategy();
+        do {
+            do {
+                Graphics graphics = strategy.getDrawGraphics();
+                try {
+                    draw(graphics);
+                } finally {
+                    graphics.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Blits every board out of the atlas to its place on the wall (with WALL_SPACING around it) and writes the scores.
+     */
+    private void draw(Graphics graphics) {
+        graphics.setColor(Color.darkGray);
+        graphics.fillRect(0, 0, getWidth(), getHeight());
+        graphics.setFont(labelFont);
+        graphics.setColor(Color.white);
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get(i);
+            int x = (i % columns) * cellWidth() + GraphicsConstants.WALL_SPACING;
+            int y = (i / columns) * cellHeight() + GraphicsConstants.WALL_SPACING;
+            graphics.drawImage(atlas, x, y, x + boardWidth, y + boardHeight,
+                    slot.left, slot.top, slot.left + boardWidth, slot.top + boardHeight, null);
+            View view = slot.drawn;
+            if (view != null) {
+                graphics.drawString("#" + view.games() + " " + view.score(), x, y + boardHeight + GraphicsConstants.WALL_LABEL_HEIGHT - 2);
+            }
+        }
+    }
+
+    private int cellWidth() {
+        return boardWidth + 2 * GraphicsConstants.WALL_SPACING;
+    }
+
+    private int cellHeight() {
+        return boardHeight + 2 * GraphicsConstants.WALL_SPACING + GraphicsConstants.WALL_LABEL_HEIGHT;
+    }
+
+    /**
+     * Usage: SpectatorWall [boards] [columns]      (64 boards, 8 columns by default)
+     *
+     * Watches that many bot games (scripted random inputs, restarted whenever they are over or stalled, ref.
+     *      Container.isStalled()) ticking every WALL_GAME_DELAY milliseconds on the shared GravityScheduler; the window
+     *      title shows the wall's own frame rate and cost. Prints the usage and exits if the arguments are not positive
+     *      numbers.
+     */
+    public static void main(String[] args) {
+        int boards;
+        int columns;
+        try {
+            boards = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+            columns = (args.length > 1) ? Integer.parseInt(args[1]) : (int) Math.ceil(Math.sqrt(boards));
+        } catch (NumberFormatException e) {
+            boards = columns = 0;
+        }
+        if (boards <= 0 || columns <= 0) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        SpectatorWall wall = new SpectatorWall(boards, columns);
+        JFrame frame = new JFrame("Tetris spectator wall");
+        frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        frame.add(wall);
+        frame.pack();
+        frame.setVisible(true);
+        wall.start();
+
+        ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "wall-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < boards; i++) {
+            watchBotGame(wall.getSlot(i), i, workers);
+        }
+
+        new Timer(1000, e -> frame.setTitle("Tetris spectator wall: " + wall.getStatus())).start();
+    }
+
+    private static void watchBotGame(Slot slot, long seed, ExecutorService workers) {
+        Container container = new Container();
+        Updater updater = new Updater(container, new Generator(seed));
+        Random bot = new Random(seed);
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+        int[] games = {1};
+        GravityScheduler.getInstance().schedule(latenessNanos -> {
+            updater.updateGeneral(inputs[bot.nextInt(inputs.length)]);
+            updater.updateDefault();
+            if (container.isGameOver() || container.isStalled()) {
+                container.clear();
+                updater.resynchronise();
+                games[0]++;
+            }
+            slot.publish(container, games[0]);
+        }, workers, GraphicsConstants.WALL_GAME_DELAY, TimeUnit.MILLISECONDS);
+    }
+}
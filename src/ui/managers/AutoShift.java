@@ -0,0 +1,121 @@
+package ui.managers;
+
+import classes.GameConstants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine-side auto-repeat of the sideways movements (instead of relying on the OS's key-repeat): "delayed auto shift"
+ *      (DAS) and "auto-repeat rate" (ARR).
+ *
+ * Pressing LEFT or RIGHT moves the tracked BlockCluster once; if the key is still held after dasNanos it moves again
+ *      every arrNanos until released. With an ARR of 0 it moves all the way to the wall (or the nearest obstacle) in one
+ *      step instead (ref. Updater.shiftToWall()). If both keys are held the one pressed last wins; releasing it hands
+ *      over to the other (which starts its own DAS).
+ *
+ * Is driven by press()/release() (with the System.nanoTime() of the key event) and update() (once per frame); every
+ *      repetition that fell due since the previous update() is performed, so the rate does not depend on the frame rate.
+ *
+ * Attributes:
+ *      held: the direction currently repeating (null if none).
+ *      leftHeld, rightHeld: the state of the keys.
+ *      nextShiftNanos: when the next repetition of held is due.
+ *
+ * NOTE: repeated presses of a held key (the OS's key-repeat) are ignored.
+ */
+public class AutoShift {
+
+    private final Updater updater;
+    private final long dasNanos;
+    private final long arrNanos;
+
+    private PossibleUserInput held;
+    private boolean leftHeld;
+    private boolean rightHeld;
+    private long nextShiftNanos;
+
+    /**
+     * @param dasMilliseconds delay before the auto-repeat sets in.
+     * @param arrMilliseconds interval between repetitions; 0 moves to the wall.
+     */
+    public AutoShift(Updater updater, long dasMilliseconds, long arrMilliseconds) {
+        this.updater = updater;
+        dasNanos = TimeUnit.MILLISECONDS.toNanos(dasMilliseconds);
+        arrNanos = TimeUnit.MILLISECONDS.toNanos(arrMilliseconds);
+    }
+
+    /**
+     * @return whether the action is subject to auto-repeat (LEFT or RIGHT).
+     */
+    public static boolean repeats(PossibleUserInput userAction) {
+        return userAction == PossibleUserInput.LEFT || userAction == PossibleUserInput.RIGHT;
+    }
+
+    /**
+     * Moves once (unless the key was already held) and starts the DAS.
+     */
+    public void press(PossibleUserInput direction, long nanos) {
+        if (direction == PossibleUserInput.LEFT) {
+            if (leftHeld) {
+                return;
+            }
+            leftHeld = true;
+        } else {
+            if (rightHeld) {
+                return;
+            }
+            rightHeld = true;
+        }
+        held = direction;
+        nextShiftNanos = nanos + dasNanos;
+        updater.updateGeneral(direction);
+    }
+
+    public void release(PossibleUserInput direction, long nanos) {
+        if (direction == PossibleUserInput.LEFT) {
+            leftHeld = false;
+        } else {
+            rightHeld = false;
+        }
+        if (held != direction) {
+            return;
+        }
+        PossibleUserInput other = (direction == PossibleUserInput.LEFT) ? PossibleUserInput.RIGHT : PossibleUserInput.LEFT;
+        held = (leftHeld || rightHeld) ? other : null;
+        nextShiftNanos = nanos + dasNanos;
+    }
+
+    /**
+     * Forgets the state of the keys (e.g. when the game is paused; the keys may be released meanwhile).
+     */
+    public void releaseAll() {
+        leftHeld = rightHeld = false;
+        held = null;
+    }
+
+    /**
+     * Performs the repetitions that have fallen due.
+     * @return the number of movements attempted; with an ARR of 0, 1 only if the BlockCluster actually moved (it is
+     *         kept to the wall every frame whilst held, which mostly finds it there already).
+     */
+    public int update(long nowNanos) {
+        if (held == null || nowNanos - nextShiftNanos < 0) {
+            return 0;
+        }
+        if (arrNanos == 0) {
+            int columns = updater.shiftToWall(held);
+            nextShiftNanos = nowNanos; // keeps to the wall (e.g. after a rotation) whilst held.
+            return (columns > 0) ? 1 : 0;
+        }
+        int shifts = 0;
+        while (nowNanos - nextShiftNanos >= 0 && shifts < GameConstants.COLUMNS) {
+            updater.updateGeneral(held);
+            nextShiftNanos += arrNanos;
+            shifts++;
+        }
+        if (nowNanos - nextShiftNanos >= 0) {
+            nextShiftNanos = nowNanos + arrNanos; // the board is only so wide; no point in catching up further.
+        }
+        return shifts;
+    }
+}
@@ -0,0 +1,210 @@
+package ui.managers;
+
+import classes.GameConstants;
+import classes.gameObjects.Block;
+import classes.gameObjects.compoundConstructs.BlockCluster;
+import classes.gameSpace.ColumnStripedLock;
+import classes.gameSpace.Container;
+
+/**
+ * Co-op mode: several controllers (local input sources or bots), each on its own thread, move their own floating
+ *      BlockCluster on the one shared Container at once. This is the concurrent counterpart of the Updater (which is
+ *      only ever invoked from Swing's Event Dispatch Thread).
+ *
+ * Coordination (ref. classes.gameSpace.ColumnStripedLock):
+ *      movements and their checks hold only the lock stripes of the columns about the BlockCluster, so controllers
+ *          that are far apart never contend.
+ *      introducing a BlockCluster, amalgamation and row clearing (which shifts every column) are global operations.
+ *
+ * Each controller owns its BlockCluster exclusively (it is the only thread that moves it), which is why a controller
+ *      may read its own BlockCluster's coordinates without holding any lock.
+ */
+public class CoopCoordinator {
+
+    private final ColumnStripedLock lock;
+
+    /**
+     * Incremented whenever the shared board is emptied (ref. resetIfGameOver()); BlockClusters of earlier rounds are void.
+     */
+    private volatile int round;
+
+    /**
+     * @param controllers the number of controllers that will share the Container.
+     */
+    public CoopCoordinator(int controllers) {
+        lock = new ColumnStripedLock();
+        // + 1 since the Container always reserves a slot for the tracked blockCluster of the Updater (unused in co-op).
+        Container.getInstance().setMaxFloatingClusters(controllers + 1);
+    }
+
+    /**
+     * @return a new controller; each must be driven by a single thread.
+     */
+    public Controller newController() {
+        return new Controller();
+    }
+
+    /**
+     * If the game is over, empties the shared board (a global operation) so that play resumes with a new round.
+     * @return whether the board was emptied.
+     */
+    public boolean resetIfGameOver() {
+        if (!Container.getInstance().isGameOver()) {
+            return false;
+        }
+        lock.lockAll();
+        try {
+            if (!Container.getInstance().isGameOver()) {
+                return false; // another controller got there first.
+            }
+            Container.getInstance().clear();
+            round++;
+            return true;
+        } finally {
+            lock.unlockAll();
+        }
+    }
+
+    /**
+     * @return the number of lock stripes the columns are divided into.
+     */
+    public int stripeCount() {
+        return lock.stripeCount();
+    }
+
+    /**
+     * A single player's (or bot's) handle on the shared Container.
+     */
+    public class Controller {
+        private BlockCluster blockCluster;
+        private int clusterRound;
+
+        private Controller() {
+
+        }
+
+        /**
+         * Applies one user action (DOWN doubles as the gravity "tick") to this controller's BlockCluster, introducing a
+         *      new BlockCluster first if it has none.
+         *
+         * @return whether the BlockCluster moved.
+         */
+        public boolean apply(PossibleUserInput userAction) {
+            if (blockCluster != null && clusterRound != round) {
+                blockCluster = null; // the board was emptied underneath it.
+            }
+            if (blockCluster == null && !spawn()) {
+                return false;
+            }
+
+            Container container = Container.getInstance();
+            // rotations reach up to two columns either side of the BlockCluster.
+            int from = leftmostColumn() - 2;
+            int to = rightmostColumn() + 2;
+            boolean moved = false;
+            boolean amalgamate;
+
+            lock.lockColumns(from, to);
+            try {
+                switch (userAction) {
+                    case LEFT -> {
+                        if (container.hasSpaceToLeft(blockCluster)) {
+                            blockCluster.moveLeft();
+                            container.clusterMoved(blockCluster);
+                            moved = true;
+                        }
+                    }
+                    case RIGHT -> {
+                        if (container.hasSpaceToRight(blockCluster)) {
+                            blockCluster.moveRight();
+                            container.clusterMoved(blockCluster);
+                            moved = true;
+                        }
+                    }
+                    case DOWN -> {
+                        if (container.hasSpaceDown(blockCluster)) {
+                            blockCluster.moveDownDefault();
+                            container.clusterDescended(blockCluster);
+                            moved = true;
+                        }
+                    }
+                    case ROTATE_RIGHT -> {
+                        if (container.rightRotationPossible(blockCluster)) {
+                            blockCluster.rotateRight();
+                            container.clusterMoved(blockCluster);
+                            moved = true;
+                        }
+                    }
+                    case ROTATE_LEFT -> {
+                        if (container.leftRotationPossible(blockCluster)) {
+                            blockCluster.rotateLeft();
+                            container.clusterMoved(blockCluster);
+                            moved = true;
+                        }
+                    }
+                }
+                amalgamate = container.needsAmalgamation(blockCluster);
+            } finally {
+                lock.unlockColumns(from, to);
+            }
+
+            if (amalgamate) {
+                lock.lockAll();
+                try {
+                    // re-checked since rows may have been cleared by others in the meantime.
+                    if (clusterRound == round && container.needsAmalgamation(blockCluster)) {
+                        container.checkAndUpdateGrid(blockCluster);
+                        blockCluster = null;
+                    }
+                } finally {
+                    lock.unlockAll();
+                }
+            }
+            return moved;
+        }
+
+        /**
+         * @return whether this controller currently has a floating BlockCluster.
+         */
+        public boolean hasBlockCluster() {
+            return blockCluster != null;
+        }
+
+        private boolean spawn() {
+            BlockCluster candidate = Generator.getInstance().generateBlockCluster();
+            lock.lockAll();
+            try {
+                Container container = Container.getInstance();
+                if (!container.hasRoomForAnotherCluster() || !container.spawnAreaClear(candidate)) {
+                    return false;
+                }
+                container.addBlockCluster(candidate);
+                blockCluster = candidate;
+                clusterRound = round;
+                return true;
+            } finally {
+                lock.unlockAll();
+            }
+        }
+
+        private int leftmostColumn() {
+            int left = GameConstants.MAXIMUM_X;
+            for (Block block : blockCluster.getAllBlocks()) {
+                if (block != null) {
+                    left = Math.min(left, block.getxCoord());
+                }
+            }
+            return left;
+        }
+
+        private int rightmostColumn() {
+            int right = GameConstants.MINIMUM_X;
+            for (Block block : blockCluster.getAllBlocks()) {
+                if (block != null) {
+                    right = Math.max(right, block.getxCoord());
+                }
+            }
+            return right;
+        }
+    }
+}
@@ -4,14 +4,17 @@ import classes.GameConstants;
 import classes.gameObjects.compoundConstructs.BlockCluster;
 import classes.gameObjects.compoundConstructs.Forms;
 import classes.gameObjects.compoundConstructs.Orientations;
+import metrics.PieceSpawnedEvent;
 
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Is the primary class responsible for the generation of all block clusters. Uses Java's Random class.
  *
- * The generator class implements the singleton pattern.
+ * The generator class implements the singleton pattern (for the GUI game); headless games construct their own (possibly
+ * seeded) Generator.
  *
  * CLASS IS HIGHLY COUPLED WITH ENUMERATIONS Orientations and Forms.
  */
@@ -22,12 +25,33 @@ public class Generator {
     public ArrayList<Orientations> orientations;
     public ArrayList<Forms> forms;
 
-    public Random randomGenerator;
+    /**
+     * The Generator derives each BlockCluster from (seed, number of BlockClusters generated so far) alone, so its
+     *      entire state is the count generated (ref. getGeneratedCount()); this is what makes a game reproducible and
+     *      rewindable (the versus mode relies on it).
+     *
+     * Generator() (the GUI game's) merely draws a random seed, which is what lets its state be checkpointed and
+     *      restored (ref. getSeed(), restore()).
+     *
+     * generateBlockCluster() may be invoked from several threads at once (the co-op controllers share the singleton):
+     *      each call claims its number atomically and draws from a Random of its own, so that no number is lost or
+     *      handed out twice and the sequence stays that of the seed.
+     */
+    private volatile long seed;
+    private final AtomicLong generated;
+
+    public Generator() {
+        this(new Random().nextLong());
+    }
 
     /**
      * coupling is inherent with enumeration...
+     * @param seed for a reproducible sequence of BlockClusters.
      */
-    private Generator() {
+    public Generator(long seed) {
+        this.seed = seed;
+        generated = new AtomicLong();
+
         orientations = new ArrayList<>();
         orientations.add(Orientations.N);
         orientations.add(Orientations.E);
@@ -46,8 +70,6 @@ public class Generator {
         forms.add(Forms.F8);
         forms.add(Forms.F9);
         forms.add(Forms.F10);
-
-        randomGenerator = new Random();
     }
 
     public static Generator getInstance() {
@@ -57,6 +79,40 @@ public class Generator {
         return generator;
     }
 
+    /**
+     * @return the number of BlockClusters generated so far.
+     */
+    public long getGeneratedCount() {
+        return generated.get();
+    }
+
+    /**
+     * Rewinds (or fast-forwards) the Generator: the next BlockCluster will be the one it generated as number count.
+     */
+    public void setGeneratedCount(long count) {
+        generated.set(count);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the Generator to a checkpointed state: it continues the sequence of the given seed from BlockCluster number
+     *      count onwards.
+     */
+    public void restore(long seed, long count) {
+        this.seed = seed;
+        setGeneratedCount(count);
+    }
+
+    /**
+     * Starts the sequence of a new game: a fresh random seed, from BlockCluster number 0 onwards.
+     */
+    public void reseed() {
+        restore(new Random().nextLong(), 0);
+    }
+
     /**
      * Generates a new BlockCluster
      * @return BlockCluster randomly generated
@@ -64,12 +120,24 @@ public class Generator {
     public BlockCluster generateBlockCluster() {
         // generates three random values for all the parameters of a block cluster; x o f
         // >>>>>>>>>> DOES PRODUCE ZERO
+        PieceSpawnedEvent event = new PieceSpawnedEvent();
+        event.begin();
+        long index = generated.getAndIncrement();
+        Random randomGenerator = new Random(seed + index * 0x9E3779B97F4A7C15L);
         int xValue = randomGenerator.nextInt(GameConstants.MAXIMUM_X - GameConstants.MAX_DIMENSION_OF_BLOCK_CLUSTER + 1);
         int orient = randomGenerator.nextInt(4); // > [0, 3]
         int f = randomGenerator.nextInt(11); // > [0, 10]
 
         BlockCluster blockCluster = new BlockCluster(xValue, orientations.get(orient), forms.get(f));
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.form = blockCluster.getForm().name();
+            event.orientation = blockCluster.getOrientation().name();
+            event.column = xValue;
+            event.index = index;
+            event.commit();
+        }
         return blockCluster;
 
 
@@ -0,0 +1,361 @@
+package ui.managers;
+
+import classes.GameConstants;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires the gravity ticks of any number of games from a single thread (instead of a javax.swing.Timer, i.e. a timer
+ *      thread, per game). Games register a GravityTimer (ref. schedule()) which supports speed levels, pausing and
+ *      resuming.
+ *
+ * Implementation: a hierarchical timing wheel. Time is divided into wheel ticks of WHEEL_RESOLUTION milliseconds. Level 0
+ *      has a slot per wheel tick for the next WHEEL_SLOTS wheel ticks, level 1 a slot per WHEEL_SLOTS wheel ticks, and so
+ *      on. A timer is filed in the slot of the lowest level that spans its deadline; whenever a level 0 revolution
+ *      completes, the due slot of level 1 is "cascaded" (its timers are refiled one level down), and likewise for the
+ *      higher levels. Scheduling, cancelling and firing are all constant time irrespective of the number of timers.
+ *
+ * The wheel thread only decides WHICH timers are due; their tasks run on the executor given to schedule() (the Swing
+ *      event dispatch thread for the GUI game, a worker pool for the headless server).
+ *
+ * Attributes:
+ *      levels: levels[level][slot] of the wheel.
+ *      origin: System.nanoTime() of wheel tick 0.
+ *      currentTick: the next wheel tick to be processed.
+ *      wakeTick: the wheel tick the wheel thread sleeps until, i.e. that of the next occupied level 0 slot (or of the next
+ *          cascade); filing a timer due earlier wakes it up.
+ *      timerCount: number of timers filed; the wheel thread sleeps on timersAdded whilst it is 0.
+ *      due, dueDeadlines: the timers found due by the wheel thread and their deadlines (read under the lock), fired
+ *          outside of it.
+ */
+public class GravityScheduler implements AutoCloseable {
+
+    private static GravityScheduler shared;
+
+    private static final int SLOT_BITS = Integer.numberOfTrailingZeros(GameConstants.WHEEL_SLOTS);
+    private static final int SLOT_MASK = GameConstants.WHEEL_SLOTS - 1;
+    private static final long RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(GameConstants.WHEEL_RESOLUTION);
+
+    /**
+     * A timer more than MAX_CATCH_UP periods behind (e.g. after the machine was suspended) is resynchronised rather than
+     *      fired repeatedly to catch up.
+     */
+    private static final int MAX_CATCH_UP = 4;
+
+    private final Slot[][] levels;
+    private final long origin;
+    private final ReentrantLock lock;
+    private final Condition timersAdded;
+    private final Thread wheelThread;
+    private final ArrayList<GravityTimer> due;
+    private long[] dueDeadlines;
+    private long currentTick;
+    private long wakeTick;
+    private int timerCount;
+    private volatile boolean running;
+
+    public GravityScheduler(String name) {
+        levels = new Slot[GameConstants.WHEEL_LEVELS][GameConstants.WHEEL_SLOTS];
+        for (Slot[] level : levels) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Slot();
+            }
+        }
+        origin = System.nanoTime();
+        lock = new ReentrantLock();
+        timersAdded = lock.newCondition();
+        due = new ArrayList<>();
+        dueDeadlines = new long[16];
+        running = true;
+        wheelThread = new Thread(this::turn, name);
+        wheelThread.setDaemon(true);
+        wheelThread.start();
+    }
+
+    /**
+     * @return the scheduler shared by the games of this process (started on first use).
+     */
+    public static synchronized GravityScheduler getInstance() {
+        if (shared == null) {
+            shared = new GravityScheduler("gravity-wheel");
+        }
+        return shared;
+    }
+
+    /**
+     * Schedules a task every GRAVITY_DELAY (speed level 0) starting one interval from now.
+     *
+     * @param executor runs the task (ref. GravityTimer.fire() for what happens if it is still running when the next tick
+     *                 falls due).
+     */
+    public GravityTimer schedule(GravityTimer.Task task, Executor executor) {
+        return schedule(task, executor, GameConstants.GRAVITY_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    public GravityTimer schedule(GravityTimer.Task task, Executor executor, long period, TimeUnit unit) {
+        GravityTimer timer = new GravityTimer(this, task, executor, unit.toNanos(period));
+        lock.lock();
+        try {
+            timer.deadline = System.nanoTime() + timer.periodNanos;
+            file(timer);
+        } finally {
+            lock.unlock();
+        }
+        return timer;
+    }
+
+    void setPeriod(GravityTimer timer, long periodNanos) {
+        lock.lock();
+        try {
+            timer.periodNanos = periodNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void pause(GravityTimer timer) {
+        lock.lock();
+        try {
+            if (timer.paused || timer.cancelled) {
+                return;
+            }
+            timer.paused = true;
+            timer.remainingNanos = Math.max(0, timer.deadline - System.nanoTime());
+            unfile(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void resume(GravityTimer timer) {
+        lock.lock();
+        try {
+            if (!timer.paused || timer.cancelled) {
+                return;
+            }
+            timer.paused = false;
+            timer.deadline = System.nanoTime() + timer.remainingNanos;
+            file(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isPaused(GravityTimer timer) {
+        lock.lock();
+        try {
+            return timer.paused;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void cancel(GravityTimer timer) {
+        lock.lock();
+        try {
+            timer.cancelled = true;
+            unfile(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of timers currently ticking (neither paused nor cancelled).
+     */
+    public int getTimerCount() {
+        lock.lock();
+        try {
+            return timerCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            timersAdded.signal();
+        } finally {
+            lock.unlock();
+        }
+        LockSupport.unpark(wheelThread);
+    }
+
+    /**
+     * The loop of the wheel thread: processes every wheel tick that has elapsed (more than one if it overslept), fires
+     *      the timers found due outside of the lock, then sleeps until the next occupied slot (ref. nextDueTick()) rather
+     *      than waking up every wheel tick.
+     */
+    private void turn() {
+        while (running) {
+            long now;
+            long wakeAt;
+            lock.lock();
+            try {
+                while (timerCount == 0 && running) {
+                    timersAdded.awaitUninterruptibly(); // close() signals too.
+                    currentTick = Math.max(currentTick, tickOf(System.nanoTime())); // nothing was filed meanwhile.
+                }
+                now = System.nanoTime();
+                long last = tickOf(now);
+                while (currentTick <= last) {
+                    processTick();
+                }
+                if (dueDeadlines.length < due.size()) {
+                    dueDeadlines = new long[Integer.highestOneBit(due.size()) * 2];
+                }
+                for (int i = 0; i < due.size(); i++) {
+                    dueDeadlines[i] = due.get(i).deadline; // written under the lock (e.g. by resume()).
+                }
+                wakeTick = nextDueTick();
+                wakeAt = origin + wakeTick * RESOLUTION_NANOS;
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < due.size(); i++) {
+                GravityTimer timer = due.get(i);
+                timer.fire(dueDeadlines[i], Math.max(0, now - dueDeadlines[i]));
+                reschedule(timer, now);
+            }
+            due.clear();
+
+            LockSupport.parkNanos(wakeAt - System.nanoTime()); // file() unparks it for an earlier timer.
+        }
+    }
+
+    /**
+     * @return the wheel tick of the first occupied level 0 slot from currentTick on, or that of the next cascade (the end
+     *         of the current level 0 revolution) if there is none before it.
+     */
+    private long nextDueTick() {
+        long cascade = (currentTick | SLOT_MASK) + 1;
+        for (long tick = currentTick; tick < cascade; tick++) {
+            if (levels[0][(int) (tick & SLOT_MASK)].head != null) {
+                return tick;
+            }
+        }
+        return cascade;
+    }
+
+    /**
+     * Processes wheel tick currentTick: cascades the higher levels if level 0 completed a revolution, then collects the
+     *      timers of the level 0 slot into due.
+     */
+    private void processTick() {
+        int index = (int) (currentTick & SLOT_MASK);
+        for (int level = 1; level < levels.length && index == 0; level++) {
+            index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            cascade(levels[level][index]);
+        }
+
+        Slot slot = levels[0][(int) (currentTick & SLOT_MASK)];
+        while (slot.head != null) {
+            GravityTimer timer = slot.head;
+            unfile(timer);
+            due.add(timer);
+        }
+        currentTick++;
+    }
+
+    private void cascade(Slot slot) {
+        GravityTimer timer = slot.head;
+        slot.head = null;
+        while (timer != null) {
+            GravityTimer next = timer.next;
+            timer.prev = timer.next = null;
+            timer.slot = null;
+            timerCount--;
+            file(timer);
+            timer = next;
+        }
+    }
+
+    /**
+     * Computes the next deadline of a fired timer (drift compensated, ref. GravityTimer) and files it again.
+     */
+    private void reschedule(GravityTimer timer, long now) {
+        lock.lock();
+        try {
+            if (timer.paused || timer.cancelled || timer.slot != null) {
+                return; // paused, cancelled or rescheduled whilst the lock was released.
+            }
+            timer.deadline += timer.periodNanos;
+            if (now - timer.deadline > MAX_CATCH_UP * timer.periodNanos) {
+                timer.deadline = now + timer.periodNanos;
+            }
+            file(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Files the timer in the slot of the lowest level spanning its deadline.
+     */
+    private void file(GravityTimer timer) {
+        long expiry = Math.max(currentTick, tickOf(timer.deadline + RESOLUTION_NANOS - 1)); // rounded up.
+        long delta = expiry - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * levels.length)) {
+            // beyond the span of the wheel: file it in the farthest slot; it is refiled when that slot cascades.
+            expiry = currentTick + (1L << (SLOT_BITS * levels.length)) - 1;
+        }
+        Slot slot = levels[level][(int) ((expiry >>> (SLOT_BITS * level)) & SLOT_MASK)];
+
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slot.head;
+        if (slot.head != null) {
+            slot.head.prev = timer;
+        }
+        slot.head = timer;
+        if (timerCount++ == 0) {
+            timersAdded.signal();
+        }
+        if (expiry < wakeTick) {
+            wakeTick = expiry;
+            LockSupport.unpark(wheelThread); // sleeps until a later tick.
+        }
+    }
+
+    private void unfile(GravityTimer timer) {
+        Slot slot = timer.slot;
+        if (slot == null) {
+            return;
+        }
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slot.head = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = timer.next = null;
+        timer.slot = null;
+        timerCount--;
+    }
+
+    private long tickOf(long nanoTime) {
+        return (nanoTime - origin) / RESOLUTION_NANOS;
+    }
+
+    /**
+     * A slot of the wheel: the head of an intrusive doubly linked list of GravityTimers.
+     */
+    static class Slot {
+        GravityTimer head;
+    }
+}
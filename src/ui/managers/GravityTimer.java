@@ -0,0 +1,154 @@
+package ui.managers;
+
+import classes.GameConstants;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The gravity "ticks" of one game, fired by a GravityScheduler (ref. GravityScheduler.schedule()).
+ *
+ * Attributes:
+ *      periodNanos: the current interval between two ticks (ref. setSpeedLevel()).
+ *      deadline: when the next tick is due (System.nanoTime()). Is advanced by periodNanos from the previous DEADLINE and
+ *          not from when the tick actually fired, so a late tick is compensated for by the next one being early.
+ *      remainingNanos: whilst paused, what was left until the deadline.
+ *      inFlight: set whilst the task is queued on / running in its executor; a tick that falls due meanwhile is coalesced
+ *          (counted in coalescedTicks) instead of piling up behind it.
+ *      prev, next, slot: links of the (intrusive) list of the wheel slot the timer is filed in; null when not filed.
+ *
+ * NOTE: the fields other than the statistics are guarded by the lock of the GravityScheduler.
+ */
+public class GravityTimer implements Runnable {
+
+    /**
+     * What a GravityTimer fires.
+     */
+    public interface Task {
+        /**
+         * @param latenessNanos how late the tick fired relative to when it was due.
+         */
+        void tick(long latenessNanos);
+    }
+
+    private final GravityScheduler scheduler;
+    private final Task task;
+    private final Executor executor;
+
+    long periodNanos;
+    long deadline;
+    long remainingNanos;
+    boolean paused;
+    boolean cancelled;
+    private int speedLevel;
+
+    GravityTimer prev;
+    GravityTimer next;
+    GravityScheduler.Slot slot;
+
+    private final AtomicBoolean inFlight;
+    private volatile long dueNanos;
+    private volatile long latenessNanos;
+    private volatile long coalescedTicks;
+
+    GravityTimer(GravityScheduler scheduler, Task task, Executor executor, long periodNanos) {
+        this.scheduler = scheduler;
+        this.task = task;
+        this.executor = executor;
+        this.periodNanos = periodNanos;
+        inFlight = new AtomicBoolean();
+    }
+
+    /**
+     * @return the gravity delay (milliseconds) of a speed level (0 is the slowest).
+     */
+    public static long delayOfLevel(int level) {
+        return Math.max(GameConstants.MINIMUM_GRAVITY_DELAY, GameConstants.GRAVITY_DELAY - (long) level * GameConstants.GRAVITY_DELAY_STEP);
+    }
+
+    /**
+     * Sets the speed level; takes effect from the next tick.
+     */
+    public void setSpeedLevel(int level) {
+        scheduler.setPeriod(this, TimeUnit.MILLISECONDS.toNanos(delayOfLevel(level)));
+        speedLevel = level;
+    }
+
+    public int getSpeedLevel() {
+        return speedLevel;
+    }
+
+    /**
+     * Sets an arbitrary interval between ticks; takes effect from the next tick.
+     */
+    public void setPeriod(long period, TimeUnit unit) {
+        scheduler.setPeriod(this, unit.toNanos(period));
+    }
+
+    /**
+     * Stops the ticks, remembering how much of the current interval was left.
+     */
+    public void pause() {
+        scheduler.pause(this);
+    }
+
+    /**
+     * Resumes the ticks; the first one fires after the remainder of the interval the timer was paused in.
+     */
+    public void resume() {
+        scheduler.resume(this);
+    }
+
+    public boolean isPaused() {
+        return scheduler.isPaused(this);
+    }
+
+    /**
+     * Stops the ticks for good.
+     */
+    public void cancel() {
+        scheduler.cancel(this);
+    }
+
+    /**
+     * @return the number of ticks dropped because the previous one had not finished yet.
+     */
+    public long getCoalescedTicks() {
+        return coalescedTicks;
+    }
+
+    /**
+     * @return when the tick being run (or last run) was due (System.nanoTime()); e.g. to animate from the tick's time
+     *         rather than from whenever its task got to run.
+     */
+    public long getDueNanos() {
+        return dueNanos;
+    }
+
+    /**
+     * Invoked by the wheel thread when the timer falls due.
+     * @param due the deadline that fell due.
+     */
+    void fire(long due, long lateness) {
+        if (!inFlight.compareAndSet(false, true)) {
+            coalescedTicks++; // only ever written by the wheel thread.
+            return;
+        }
+        dueNanos = due;
+        latenessNanos = lateness;
+        executor.execute(this);
+    }
+
+    /**
+     * Runs the task on the executor.
+     */
+    @Override
+    public void run() {
+        try {
+            task.tick(latenessNanos);
+        } finally {
+            inFlight.set(false);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ui.managers;
+
+/**
+ * Bounded, lock-free queue of user actions (key presses and, for the auto-repeated ones, releases; ref. AutoShift) with
+ *      the time they were made; the GUI's KeyListener offers actions and the game loop drains them, in order, once per
+ *      frame (ref. ui.gui.GameBoard).
+ *
+ * Implementation: a SequencedRing (D. Vyukov's bounded queue) with the actions in arrays indexed by its slots. Neither
+ *      offering nor draining allocates.
+ *
+ * Attributes:
+ *      ring: the sequencing of the slots; its dropped count is that of the actions refused because the queue was full.
+ *
+ * NOTE: any number of threads may offer but only one may drain.
+ */
+public class InputQueue {
+
+    /**
+     * Receives the drained actions.
+     */
+    public interface Sink {
+        /**
+         * @param released whether the key was released (rather than pressed).
+         * @param nanos System.nanoTime() when the action was queued.
+         */
+        void accept(PossibleUserInput input, boolean released, long nanos);
+    }
+
+    private final SequencedRing ring;
+    private final PossibleUserInput[] inputs;
+    private final boolean[] released;
+    private final long[] nanos;
+
+    /**
+     * @param capacity rounded up to a power of two.
+     */
+    public InputQueue(int capacity) {
+        ring = new SequencedRing(capacity);
+        inputs = new PossibleUserInput[ring.size()];
+        released = new boolean[ring.size()];
+        nanos = new long[ring.size()];
+    }
+
+    /**
+     * Stamps the action with System.nanoTime() (the one clock its latency is measured by, ref.
+     *      metrics.InputLatencyTracker).
+     * @return false (and the action is dropped) if the queue is full.
+     */
+    public boolean offer(PossibleUserInput input, boolean released) {
+        long position = ring.claim();
+        if (position < 0) {
+            return false;
+        }
+        int index = ring.indexOf(position);
+        inputs[index] = input;
+        this.released[index] = released;
+        nanos[index] = System.nanoTime();
+        ring.publish(position);
+        return true;
+    }
+
+    /**
+     * Hands every published action to the sink in the order they were offered.
+     * @return the number of actions drained.
+     */
+    public int drain(Sink sink) {
+        int drained = 0;
+        for (int index = ring.peek(); index >= 0; index = ring.peek()) {
+            PossibleUserInput input = inputs[index];
+            boolean wasReleased = released[index];
+            long queued = nanos[index];
+            inputs[index] = null;
+            ring.release();
+            drained++;
+            sink.accept(input, wasReleased, queued);
+        }
+        return drained;
+    }
+
+    public long getDropped() {
+        return ring.getDropped();
+    }
+}
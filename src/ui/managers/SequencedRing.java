@@ -0,0 +1,136 @@
+package ui.managers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The sequencing of a bounded, lock-free, multi-producer single-consumer ring buffer (D. Vyukov's bounded queue); the
+ *      payload lives in arrays of the user's own, indexed by the slot (ref. InputQueue and telemetry.TelemetryWriter).
+ *
+ * Producers claim() a position, fill in slot indexOf(position) and publish() it; the (single) consumer peek()s the
+ *      next published slot, reads it and release()s it. Neither side allocates nor blocks.
+ *
+ * The ring can be closed (ref. close()): claims fail from then on, and the consumer knows when it has drained every
+ *      record claimed before (ref. isDrained()), so that none is lost between a producer's claim and the close.
+ *
+ * Attributes:
+ *      sequences: per slot, (position + 1) once published at position, (position + capacity) once consumed (free again).
+ *      tail: the next position to be claimed by a producer; its sign bit (CLOSED) is set once the ring is closed.
+ *      head: the next position to be consumed (only touched by the consumer).
+ *      dropped: claims refused because the ring was full or closed.
+ *
+ * NOTE: any number of threads may claim but only one may consume.
+ */
+public class SequencedRing {
+
+    private final static long CLOSED = Long.MIN_VALUE;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private long head;
+
+    /**
+     * @param capacity rounded up to a power of two.
+     */
+    public SequencedRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        tail = new AtomicLong();
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * @return the number of slots (the payload arrays are to be as long).
+     */
+    public int size() {
+        return mask + 1;
+    }
+
+    public int indexOf(long position) {
+        return (int) (position & mask);
+    }
+
+    /**
+     * Claims the next position for a producer, which is to fill in its slot and publish() it straight away.
+     * @return the position; -1 (and it is counted as dropped) if the ring is full or closed.
+     */
+    public long claim() {
+        long position = tail.get();
+        while (true) {
+            if (position < 0) {
+                dropped.incrementAndGet(); // closed.
+                return -1;
+            }
+            long difference = sequences.get(indexOf(position)) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+            position = tail.get(); // another producer claimed it (or the ring was closed).
+        }
+    }
+
+    /**
+     * Publishes the slot of a claimed position to the consumer.
+     */
+    public void publish(long position) {
+        sequences.set(indexOf(position), position + 1);
+    }
+
+    /**
+     * @return the slot of the next record if it has been published, otherwise -1 (consumer only).
+     */
+    public int peek() {
+        int index = indexOf(head);
+        return (sequences.get(index) == head + 1) ? index : -1;
+    }
+
+    /**
+     * Frees the slot returned by peek() and moves on to the next one (consumer only).
+     */
+    public void release() {
+        sequences.set(indexOf(head), head + mask + 1);
+        head++;
+    }
+
+    /**
+     * Refuses any further claim. The records claimed before remain to be consumed (ref. isDrained()).
+     */
+    public void close() {
+        long position = tail.get();
+        while (position >= 0 && !tail.compareAndSet(position, position | CLOSED)) {
+            position = tail.get();
+        }
+    }
+
+    /**
+     * @return whether close() was invoked (claims fail from then on).
+     */
+    public boolean isClosed() {
+        return tail.get() < 0;
+    }
+
+    /**
+     * @return whether the ring is closed and every record claimed before was consumed (consumer only). A producer that
+     *         claimed just before close() may still be filling in its slot, so until then the consumer is to keep
+     *         consuming.
+     */
+    public boolean isDrained() {
+        long position = tail.get();
+        return position < 0 && head == (position & ~CLOSED);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -2,6 +2,10 @@ package ui.managers;
 
 import classes.gameObjects.compoundConstructs.BlockCluster;
 import classes.gameSpace.Container;
+import metrics.TickMetrics;
+import metrics.TickPhase;
+
+import java.util.ArrayList;
 
 /**
  * Is the primary class for the updating of the generated BlockClusters. These updates are both in response to "ticks"
@@ -11,11 +15,21 @@ import classes.gameSpace.Container;
  *      For a comprehensive overview of the cycle please refer to the README.md.
  *      It should, however, suffice to say that GameBoard invokes Updater which invokes Container methods.
  *
- *      The updater class implements the singleton pattern.
+ *      The updater class implements the singleton pattern (for the GUI game); headless games construct their own.
+ *
+ *      In the multi-cluster mode (ref. setClusterCount()) the "ticks" drive every floating BlockCluster held by the
+ *      Container whereas user input still only concerns the tracked blockCluster.
  */
 public class Updater {
 
-    private static Updater updater = new Updater();
+    private static Updater updater = new Updater(Container.getInstance(), Generator.getInstance());
+
+    /**
+     * The Container and Generator of the game being updated (the shared instances for the GUI game; headless games, ref.
+     * server.GameSession, wire up their own).
+     */
+    private final Container container;
+    private final Generator generator;
 
     /**
      * keeps track of the BlockCluster produced by generator.
@@ -23,8 +37,15 @@ public class Updater {
      */
     private BlockCluster blockCluster;
 
-    private Updater() {
+    /**
+     * Reused every tick to iterate the floating BlockClusters (amalgamation alters the Container's own list).
+     */
+    private final ArrayList<BlockCluster> tickingClusters;
 
+    public Updater(Container container, Generator generator) {
+        this.container = container;
+        this.generator = generator;
+        tickingClusters = new ArrayList<>();
     }
 
     public static Updater getInstance() {
@@ -35,61 +56,143 @@ public class Updater {
      * Block Cluster Update. Code repeated and thus was abstracted.
      */
     private void updateCluster() {
-        if (Container.getInstance().noCurrentFloatingObject()) {
-            BlockCluster newBlockCluster = Generator.getInstance().generateBlockCluster();
-            blockCluster = newBlockCluster;
-            Container.getInstance().setBlockCluster(blockCluster);
+        long start = System.nanoTime();
+        if (container.noCurrentFloatingObject()) {
+            BlockCluster newBlockCluster = generator.generateBlockCluster();
+            // in the multi-cluster mode the new BlockCluster may emerge on top of another one; it is then retried next time.
+            if (container.spawnAreaClear(newBlockCluster)) {
+                blockCluster = newBlockCluster;
+                container.setBlockCluster(blockCluster);
+            }
         }
+        // multi-cluster mode only: top up the remaining floating BlockClusters.
+        while (container.hasRoomForAnotherCluster()) {
+            BlockCluster additionalCluster = generator.generateBlockCluster();
+            if (!container.spawnAreaClear(additionalCluster)) {
+                break;
+            }
+            container.addBlockCluster(additionalCluster);
+        }
+        TickMetrics.getInstance().record(TickPhase.GENERATION, start);
+    }
+
+    /**
+     * Re-reads the tracked blockCluster from the Container; REQUIRED after the Container was restored from a snapshot
+     *      (ref. Container.restoreSnapshot()) since the restored blockCluster is a new object.
+     */
+    public void resynchronise() {
+        blockCluster = container.getBlockCluster();
+    }
+
+    /**
+     * Enables the multi-cluster mode (party and stress modes) if n > 1.
+     * @param n number of BlockClusters that fall at once.
+     */
+    public void setClusterCount(int n) {
+        container.setMaxFloatingClusters(n);
     }
 
     /**
      * This is the default update method invoked by "ticks". Does not incorporate user actions.
+     * Moves down every floating BlockCluster (just the one outside of the multi-cluster mode).
      */
     public void updateDefault() {
         updateCluster();
 
-        if (Container.getInstance().hasSpaceDown()) {
-            blockCluster.moveDownDefault();
-            Container.getInstance().checkAndUpdateGrid();
+        tickingClusters.clear();
+        tickingClusters.addAll(container.getFloatingClusters());
+        TickMetrics metrics = TickMetrics.getInstance();
+        for (BlockCluster cluster : tickingClusters) {
+            long start = System.nanoTime();
+            if (container.hasSpaceDown(cluster)) {
+                cluster.moveDownDefault();
+                container.clusterDescended(cluster);
+                start = metrics.record(TickPhase.MOVEMENT, start);
+                container.checkAndUpdateGrid(cluster);
+                metrics.record(TickPhase.LOCK_AND_CLEAR, start);
+            } else {
+                metrics.record(TickPhase.MOVEMENT, start);
+            }
         }
+        tickingClusters.clear();
+
         updateCluster(); // >>> required here since checkAndUpdateGrid may result in there being no tracked "floating" blockCluster
     }
 
+    /**
+     * Moves the tracked blockCluster as far left (or right) as it goes in one step (an auto-repeat rate of 0, ref.
+     *      AutoShift).
+     * @param direction LEFT or RIGHT.
+     * @return the number of columns it moved (0 if it was already against the wall or an obstacle).
+     */
+    public int shiftToWall(PossibleUserInput direction) {
+        updateCluster();
+        if (container.noCurrentFloatingObject()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int step = (direction == PossibleUserInput.LEFT) ? -1 : 1;
+        int columns = container.freeColumns(blockCluster, step);
+        if (columns > 0) {
+            blockCluster.moveSideways(step * columns);
+            container.clusterMoved(blockCluster);
+        }
+        start = TickMetrics.getInstance().record(TickPhase.MOVEMENT, start);
+
+        container.checkAndUpdateGrid();
+        TickMetrics.getInstance().record(TickPhase.LOCK_AND_CLEAR, start);
+        updateCluster();
+        return columns;
+    }
+
     public void updateGeneral(PossibleUserInput userAction)  {
         updateCluster();
+        if (container.noCurrentFloatingObject()) {
+            return; // multi-cluster mode: the tracked blockCluster could not emerge yet.
+        }
 
+        long start = System.nanoTime();
         switch (userAction) {
             case LEFT -> {
-                if (Container.getInstance().hasSpaceToLeft()) {
+                if (container.hasSpaceToLeft()) {
                     blockCluster.moveLeft();
+                    container.clusterMoved(blockCluster);
                     break;
                 }
             }
             case RIGHT -> {
-                if (Container.getInstance().hasSpaceToRight()) {
+                if (container.hasSpaceToRight()) {
                     blockCluster.moveRight();
+                    container.clusterMoved(blockCluster);
                     break;
                 }
             }
             case DOWN -> {
-                if (Container.getInstance().hasSpaceDown()) {
+                if (container.hasSpaceDown()) {
                     blockCluster.moveDownDefault();
+                    container.clusterDescended(blockCluster);
                 }
                 break;
             }
             case ROTATE_RIGHT -> {
-                if (Container.getInstance().rightRotationPossible()) {
+                if (container.rightRotationPossible()) {
                     blockCluster.rotateRight();
+                    container.clusterMoved(blockCluster);
                 }
             }
             case ROTATE_LEFT -> {
-                if (Container.getInstance().leftRotationPossible()) {
+                if (container.leftRotationPossible()) {
                     blockCluster.rotateLeft();
+                    container.clusterMoved(blockCluster);
                 }
             }
         }
 
-        Container.getInstance().checkAndUpdateGrid();
+        start = TickMetrics.getInstance().record(TickPhase.MOVEMENT, start);
+
+        container.checkAndUpdateGrid();
+        TickMetrics.getInstance().record(TickPhase.LOCK_AND_CLEAR, start);
         updateCluster();
     }
 }
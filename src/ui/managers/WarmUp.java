@@ -0,0 +1,118 @@
+package ui.managers;
+
+import classes.GameConstants;
+import classes.gameSpace.Container;
+import metrics.LatencyHistogram;
+import metrics.TickMetrics;
+
+import java.util.Random;
+
+/**
+ * Warms up the JIT whilst the welcome screen waits for the user: a background thread plays a deterministic headless game
+ *      (fixed seed, scripted bot) on a throwaway Container, Generator and Updater, so that the hot methods of the engine
+ *      are compiled before the first real tick rather than during the first seconds of play.
+ *
+ * The game is played in rounds of WARMUP_ROUND_TICKS ticks; each round's tick latency is recorded in a histogram of its
+ *      own. Warming up ends once the median of a round is within WARMUP_TOLERANCE_PERCENT of the previous round's (the
+ *      code has stopped getting faster), after WARMUP_MAX_DURATION milliseconds, or when stop() is invoked, whichever
+ *      comes first.
+ *
+ * Nothing of the throwaway game survives it: its objects are dropped and the shared TickMetrics, which its ticks were
+ *      recorded in as well, are reset by stop().
+ *
+ * Attributes:
+ *      first, last: tick latency of the first round and of the latest completed round (ref. summary()).
+ */
+public class WarmUp {
+
+    private final static long SEED = 20240501L;
+
+    private final Thread thread;
+    private volatile boolean stopped;
+    private volatile String summary;
+    private LatencyHistogram first;
+    private LatencyHistogram last;
+
+    private WarmUp() {
+        thread = new Thread(this::run, "jit-warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY); // the welcome screen comes first.
+    }
+
+    /**
+     * Starts warming up in the background (unless disabled with -Dtetris.warmup=false).
+     * @return the warm-up (to be stopped before the real game begins); null if disabled.
+     */
+    public static WarmUp start() {
+        if (!Boolean.parseBoolean(System.getProperty("tetris.warmup", "true"))) {
+            return null;
+        }
+        WarmUp warmUp = new WarmUp();
+        warmUp.thread.start();
+        return warmUp;
+    }
+
+    /**
+     * Ends the warm-up (within a tick if it is still running) and removes its samples from the TickMetrics. MUST be
+     *      invoked before the real game's first tick.
+     */
+    public void stop() {
+        stopped = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        TickMetrics.getInstance().reset();
+    }
+
+    /**
+     * @return e.g. "JIT warm-up: 3 rounds (6000 ticks) in 850 ms; tick p50 12.1us -> 2.3us, p99 95.0us -> 6.8us"
+     */
+    public String summary() {
+        return summary;
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long deadline = start + GameConstants.WARMUP_MAX_DURATION * 1_000_000L;
+        Container container = new Container();
+        Updater updater = new Updater(container, new Generator(SEED));
+        Random bot = new Random(SEED);
+        PossibleUserInput[] inputs = PossibleUserInput.values();
+
+        int rounds = 0;
+        long previousMedian = Long.MAX_VALUE;
+        while (!stopped && System.nanoTime() < deadline) {
+            LatencyHistogram round = new LatencyHistogram();
+            for (int i = 0; i < GameConstants.WARMUP_ROUND_TICKS && !stopped; i++) {
+                long tickStart = System.nanoTime();
+                updater.updateGeneral(inputs[bot.nextInt(inputs.length)]);
+                updater.updateDefault();
+                round.record(System.nanoTime() - tickStart);
+                if (container.isGameOver()) {
+                    container.clear();
+                    updater.resynchronise();
+                }
+            }
+            if (stopped) {
+                break; // an incomplete round says little.
+            }
+            rounds++;
+            first = (first == null) ? round : first;
+            last = round;
+            long median = round.valueAtQuantile(0.5);
+            if (rounds > 1 && median * 100 >= previousMedian * (100 - GameConstants.WARMUP_TOLERANCE_PERCENT)) {
+                break;
+            }
+            previousMedian = median;
+        }
+        if (first != null) {
+            summary = String.format("JIT warm-up: %d rounds (%d ticks) in %d ms; tick p50 %.1fus -> %.1fus, p99 %.1fus -> %.1fus",
+                    rounds, rounds * GameConstants.WARMUP_ROUND_TICKS, (System.nanoTime() - start) / 1_000_000,
+                    first.getP50Micros(), last.getP50Micros(), first.getP99Micros(), last.getP99Micros());
+        } else {
+            summary = "JIT warm-up: stopped before a round was complete";
+        }
+    }
+}
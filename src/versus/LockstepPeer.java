@@ -0,0 +1,100 @@
+package versus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The network end of a LockstepSession: sends the local actions of every tick and hands the opponent's to the session.
+ *
+ * Wire format: one big-endian long per tick, (tick << 32) | packed actions (ref. LockstepSession.pack()). TCP keeps the
+ *      messages in order, which LockstepSession.receiveRemote() relies on.
+ *
+ * A virtual thread reads the socket into a queue; the game loop drains the queue (ref. drainInto()) so that the session
+ *      is only ever touched by the game loop. An artificial latency may be added for testing over loopback.
+ */
+public class LockstepPeer implements AutoCloseable {
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final ConcurrentLinkedQueue<Delivery> received;
+    private final long latencyNanos;
+    private volatile boolean closed;
+
+    private LockstepPeer(Socket socket, long latencyMilliseconds) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        received = new ConcurrentLinkedQueue<>();
+        latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMilliseconds);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Thread.ofVirtual().name("lockstep-receiver").start(() -> receive(in));
+    }
+
+    /**
+     * Waits for the opponent to connect.
+     */
+    public static LockstepPeer accept(ServerSocket serverSocket, long latencyMilliseconds) throws IOException {
+        return new LockstepPeer(serverSocket.accept(), latencyMilliseconds);
+    }
+
+    public static LockstepPeer connect(InetAddress address, int port, long latencyMilliseconds) throws IOException {
+        return new LockstepPeer(new Socket(address, port), latencyMilliseconds);
+    }
+
+    public void send(int tick, int packedInputs) throws IOException {
+        out.writeLong(((long) tick << 32) | (packedInputs & 0xFFFFFFFFL));
+        out.flush();
+    }
+
+    /**
+     * Passes every message whose (artificial) latency has elapsed to the session.
+     */
+    public void drainInto(LockstepSession session) {
+        long now = System.nanoTime();
+        Delivery delivery;
+        while ((delivery = received.peek()) != null && delivery.deliverAt - now <= 0) {
+            received.poll();
+            session.receiveRemote((int) (delivery.message >>> 32), (int) delivery.message);
+        }
+    }
+
+    private void receive(DataInputStream in) {
+        try {
+            while (!closed) {
+                long message = in.readLong();
+                received.add(new Delivery(message, System.nanoTime() + latencyNanos));
+            }
+        } catch (EOFException e) {
+            // the opponent left
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Lockstep connection failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+    }
+
+    private static class Delivery {
+        private final long message;
+        private final long deliverAt;
+
+        private Delivery(long message, long deliverAt) {
+            this.message = message;
+            this.deliverAt = deliverAt;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package versus;
+
+import classes.GameConstants;
+import ui.managers.PossibleUserInput;
+
+/**
+ * Deterministic lockstep simulation of a versus match between two peers, with rollback.
+ *
+ * Both peers simulate BOTH boards from the same seed; all that travels over the network are the user actions of each tick
+ *      (ref. LockstepPeer). A peer does not wait for the opponent's actions of a tick: it predicts "no action" and carries
+ *      on. When the actual actions arrive and differ from the prediction the session rolls back to the snapshot taken
+ *      before that tick and re-simulates up to the present (ref. resolveRollback()).
+ *
+ * A peer may run at most VERSUS_ROLLBACK_WINDOW ticks ahead of the last confirmed remote tick (ref. canAdvance()), which
+ *      bounds the cost of a rollback and the amount of history kept.
+ *
+ * Attributes:
+ *      boards: the two boards (index = player).
+ *      inputs: packed actions (ref. pack()) of each player for the last HISTORY ticks, indexed by tick % HISTORY; for
+ *          unconfirmed remote ticks this is the prediction.
+ *      states: the state of both boards BEFORE each of the last HISTORY ticks.
+ *      tick: the next tick to simulate.
+ *      confirmedRemote: the last tick whose remote actions are known (remote actions arrive in order).
+ *      rollbackFrom: the earliest mispredicted tick (Integer.MAX_VALUE if none).
+ *      pendingLocal: local actions gathered for the current tick.
+ */
+public class LockstepSession {
+
+    static final int BITS_PER_INPUT = 4;
+    public static final int MAX_INPUTS_PER_TICK = Integer.SIZE / BITS_PER_INPUT;
+    private static final int INPUT_MASK = (1 << BITS_PER_INPUT) - 1;
+    private static final PossibleUserInput[] INPUTS = PossibleUserInput.values();
+    private static final int HISTORY = Integer.highestOneBit(GameConstants.VERSUS_ROLLBACK_WINDOW) * 2;
+
+    private final VersusBoard[] boards;
+    private final int localPlayer;
+    private final int remotePlayer;
+    private final int[][] inputs;
+    private final VersusBoard.State[][] states;
+    private final VersusBoard.State[] scratch;
+
+    private int tick;
+    private int confirmedRemote;
+    private int rollbackFrom;
+    private int pendingLocal;
+    private int pendingLocalCount;
+
+    // statistics
+    private long rollbacks;
+    private long resimulatedTicks;
+    private int deepestRollback;
+    private long longestRollbackNanos;
+
+    /**
+     * @param seed shared by both peers (agreed on before the match).
+     * @param localPlayer 0 or 1.
+     */
+    public LockstepSession(long seed, int localPlayer) {
+        if (localPlayer != 0 && localPlayer != 1) {
+            throw new IllegalArgumentException("localPlayer must be 0 or 1");
+        }
+        boards = new VersusBoard[]{new VersusBoard(seed, ~seed), new VersusBoard(seed, seed * 31 + 1)};
+        this.localPlayer = localPlayer;
+        remotePlayer = 1 - localPlayer;
+        inputs = new int[2][HISTORY];
+        states = new VersusBoard.State[HISTORY][2];
+        for (VersusBoard.State[] pair : states) {
+            pair[0] = new VersusBoard.State();
+            pair[1] = new VersusBoard.State();
+        }
+        scratch = new VersusBoard.State[]{new VersusBoard.State(), new VersusBoard.State()};
+        confirmedRemote = -1;
+        rollbackFrom = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Adds a local action to the current tick. Actions beyond MAX_INPUTS_PER_TICK in one tick are dropped.
+     */
+    public void addLocalInput(PossibleUserInput input) {
+        if (pendingLocalCount < MAX_INPUTS_PER_TICK) {
+            pendingLocal |= (input.ordinal() + 1) << (pendingLocalCount * BITS_PER_INPUT);
+            pendingLocalCount++;
+        }
+    }
+
+    /**
+     * Records the opponent's actions for a tick. MUST be called in tick order.
+     */
+    public void receiveRemote(int remoteTick, int packedInputs) {
+        if (remoteTick != confirmedRemote + 1) {
+            throw new IllegalStateException("Expected remote tick " + (confirmedRemote + 1) + " but got " + remoteTick);
+        }
+        int slot = remoteTick & (HISTORY - 1);
+        if (remoteTick < tick && inputs[remotePlayer][slot] != packedInputs) {
+            rollbackFrom = Math.min(rollbackFrom, remoteTick);
+        }
+        inputs[remotePlayer][slot] = packedInputs;
+        confirmedRemote = remoteTick;
+    }
+
+    /**
+     * @return whether the session may simulate another tick without exceeding the rollback window.
+     */
+    public boolean canAdvance() {
+        return tick - confirmedRemote <= GameConstants.VERSUS_ROLLBACK_WINDOW;
+    }
+
+    /**
+     * Corrects any misprediction, then simulates the current tick with the gathered local actions.
+     *
+     * @return the local actions of the simulated tick (packed), to be sent to the opponent.
+     */
+    public int advance() {
+        if (!canAdvance()) {
+            throw new IllegalStateException("Tick " + tick + " lies beyond the rollback window");
+        }
+        resolveRollback();
+
+        int slot = tick & (HISTORY - 1);
+        int local = pendingLocal;
+        inputs[localPlayer][slot] = local;
+        if (tick > confirmedRemote) {
+            inputs[remotePlayer][slot] = 0; // prediction: the opponent does nothing
+        }
+        pendingLocal = 0;
+        pendingLocalCount = 0;
+
+        simulate(tick);
+        tick++;
+        return local;
+    }
+
+    /**
+     * Rolls back to the earliest mispredicted tick and re-simulates up to (excluding) the current tick.
+     */
+    public void resolveRollback() {
+        if (rollbackFrom >= tick) {
+            rollbackFrom = Integer.MAX_VALUE;
+            return;
+        }
+        long start = System.nanoTime();
+        int depth = tick - rollbackFrom;
+        VersusBoard.State[] before = states[rollbackFrom & (HISTORY - 1)];
+        boards[0].restore(before[0]);
+        boards[1].restore(before[1]);
+        for (int t = rollbackFrom; t < tick; t++) {
+            simulate(t);
+        }
+        rollbackFrom = Integer.MAX_VALUE;
+
+        rollbacks++;
+        resimulatedTicks += depth;
+        deepestRollback = Math.max(deepestRollback, depth);
+        longestRollbackNanos = Math.max(longestRollbackNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Snapshots both boards, then simulates tick t for both. Rows cleared by one player are sent as garbage to the other
+     *      (inserted at the start of the opponent's next tick).
+     */
+    private void simulate(int t) {
+        int slot = t & (HISTORY - 1);
+        boards[0].save(states[slot][0]);
+        boards[1].save(states[slot][1]);
+
+        int clearedByFirst = boards[0].step(t, inputs[0][slot]);
+        int clearedBySecond = boards[1].step(t, inputs[1][slot]);
+        boards[1].receiveGarbage(clearedByFirst);
+        boards[0].receiveGarbage(clearedBySecond);
+    }
+
+    /**
+     * @return a hash of the current state of both boards; equal on both peers once they have simulated the same ticks
+     *         with the same (confirmed) actions.
+     */
+    public long checksum() {
+        resolveRollback();
+        boards[0].save(scratch[0]);
+        boards[1].save(scratch[1]);
+        return scratch[0].checksum() * 31 + scratch[1].checksum();
+    }
+
+    /**
+     * Packs a sequence of actions the way addLocalInput() does (for bots and tests).
+     */
+    public static int pack(PossibleUserInput... actions) {
+        int packed = 0;
+        for (int i = 0; i < actions.length && i < MAX_INPUTS_PER_TICK; i++) {
+            packed |= (actions[i].ordinal() + 1) << (i * BITS_PER_INPUT);
+        }
+        return packed;
+    }
+
+    /**
+     * @return the first action of the packed actions (shift by BITS_PER_INPUT for the next).
+     */
+    static PossibleUserInput unpack(int packed) {
+        return INPUTS[(packed & INPUT_MASK) - 1];
+    }
+
+    public VersusBoard getBoard(int player) {
+        return boards[player];
+    }
+
+    public int getLocalPlayer() {
+        return localPlayer;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getConfirmedRemoteTick() {
+        return confirmedRemote;
+    }
+
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    public long getResimulatedTicks() {
+        return resimulatedTicks;
+    }
+
+    public int getDeepestRollback() {
+        return deepestRollback;
+    }
+
+    public long getLongestRollbackNanos() {
+        return longestRollbackNanos;
+    }
+}
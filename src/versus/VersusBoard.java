@@ -0,0 +1,124 @@
+package versus;
+
+import classes.GameConstants;
+import classes.gameSpace.BoardSnapshot;
+import classes.gameSpace.Container;
+import ui.managers.Generator;
+import ui.managers.PossibleUserInput;
+import ui.managers.Updater;
+
+/**
+ * One of the two boards of a versus match. Is fully deterministic: given the same seeds and the same inputs on the same
+ *      ticks every peer arrives at the same state, which is what allows peers to exchange inputs only.
+ *
+ * Garbage: rows cleared on one board are sent to the opponent (ref. receiveGarbage()) and inserted at the bottom of its
+ *      Container at the start of its next tick, with a hole in a column derived from garbageSeed.
+ *
+ * Attributes:
+ *      garbageEvents: number of garbage insertions so far (picks the hole column deterministically).
+ *      pendingGarbage: rows received but not yet inserted.
+ */
+public class VersusBoard {
+
+    private final Container container;
+    private final Generator generator;
+    private final Updater updater;
+
+    private final long garbageSeed;
+    private long garbageEvents;
+    private int pendingGarbage;
+
+    public VersusBoard(long seed, long garbageSeed) {
+        container = new Container();
+        generator = new Generator(seed);
+        updater = new Updater(container, generator);
+        this.garbageSeed = garbageSeed;
+    }
+
+    /**
+     * Simulates a single tick.
+     *
+     * @param tick the number of the tick (gravity acts on every VERSUS_GRAVITY_TICKS-th).
+     * @param inputs the user actions of the tick, packed (ref. LockstepSession.pack()).
+     * @return the number of rows cleared during the tick.
+     */
+    int step(int tick, int inputs) {
+        if (container.isGameOver()) {
+            return 0;
+        }
+        int scoreBefore = container.getScore();
+        if (pendingGarbage > 0) {
+            container.addGarbageRows(pendingGarbage, holeColumn());
+            garbageEvents++;
+            pendingGarbage = 0;
+        }
+        for (int remaining = inputs; remaining != 0; remaining >>>= LockstepSession.BITS_PER_INPUT) {
+            updater.updateGeneral(LockstepSession.unpack(remaining));
+        }
+        if (tick % GameConstants.VERSUS_GRAVITY_TICKS == 0) {
+            updater.updateDefault();
+        }
+        return container.getScore() - scoreBefore;
+    }
+
+    void receiveGarbage(int rows) {
+        pendingGarbage += rows;
+    }
+
+    void save(State state) {
+        container.saveSnapshot(state.board);
+        state.generated = generator.getGeneratedCount();
+        state.garbageEvents = garbageEvents;
+        state.pendingGarbage = pendingGarbage;
+    }
+
+    void restore(State state) {
+        container.restoreSnapshot(state.board);
+        updater.resynchronise();
+        generator.setGeneratedCount(state.generated);
+        garbageEvents = state.garbageEvents;
+        pendingGarbage = state.pendingGarbage;
+    }
+
+    public boolean isGameOver() {
+        return container.isGameOver();
+    }
+
+    public int getScore() {
+        return container.getScore();
+    }
+
+    /**
+     * For rendering (read only).
+     */
+    public Container getContainer() {
+        return container;
+    }
+
+    private int holeColumn() {
+        // SplitMix64 finaliser of (seed, event) for a well spread yet reproducible column.
+        long z = garbageSeed + (garbageEvents + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) Math.floorMod(z, (long) GameConstants.COLUMNS);
+    }
+
+    /**
+     * Everything needed to rewind a VersusBoard. Reused; saving does not allocate.
+     */
+    static class State {
+        final BoardSnapshot board = new BoardSnapshot();
+        long generated;
+        long garbageEvents;
+        int pendingGarbage;
+
+        long checksum() {
+            long hash = board.checksum();
+            hash = hash * 31 + generated;
+            hash = hash * 31 + garbageEvents;
+            hash = hash * 31 + pendingGarbage;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package versus;
+
+import classes.GameConstants;
+import ui.managers.PossibleUserInput;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a versus match between two bots in one JVM, each with its own LockstepSession and LockstepPeer connected over
+ *      loopback with an artificial latency, then checks that both peers arrived at the same state.
+ *
+ * Usage: VersusLoopbackDemo [ticks] [latencyMilliseconds] [seed]
+ */
+public class VersusLoopbackDemo {
+
+    public static void main(String[] args) throws Exception {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20 * GameConstants.VERSUS_TICKS_PER_SECOND;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 80;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<LockstepPeer> host = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return LockstepPeer.accept(serverSocket, latency);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            LockstepPeer guestPeer = LockstepPeer.connect(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort(), latency);
+            LockstepPeer hostPeer = host.get();
+
+            LockstepSession hostSession = new LockstepSession(seed, 0);
+            LockstepSession guestSession = new LockstepSession(seed, 1);
+            CompletableFuture<Void> hostRun = CompletableFuture.runAsync(() -> play(hostSession, hostPeer, ticks, seed));
+            CompletableFuture<Void> guestRun = CompletableFuture.runAsync(() -> play(guestSession, guestPeer, ticks, ~seed));
+            hostRun.get();
+            guestRun.get();
+            hostPeer.close();
+            guestPeer.close();
+
+            report("host", hostSession);
+            report("guest", guestSession);
+            boolean inSync = hostSession.checksum() == guestSession.checksum();
+            System.out.println(inSync ? "Peers are in sync." : "Peers DESYNCHRONISED!");
+            if (!inSync) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Runs the game loop of one peer at VERSUS_TICKS_PER_SECOND until it has simulated (and sent) ticks ticks and the
+     *      remote peer's ticks are confirmed; a peer that lags behind must not stop before it has sent its last ticks.
+     */
+    private static void play(LockstepSession session, LockstepPeer peer, int ticks, long botSeed) {
+        Random bot = new Random(botSeed);
+        PossibleUserInput[] actions = PossibleUserInput.values();
+        long period = TimeUnit.SECONDS.toNanos(1) / GameConstants.VERSUS_TICKS_PER_SECOND;
+        long deadline = System.nanoTime();
+        try {
+            while (session.getTick() < ticks || session.getConfirmedRemoteTick() < ticks - 1) {
+                peer.drainInto(session);
+                if (session.getTick() < ticks && session.canAdvance()) {
+                    if (bot.nextInt(4) == 0) {
+                        session.addLocalInput(actions[bot.nextInt(actions.length)]);
+                    }
+                    int tick = session.getTick();
+                    peer.send(tick, session.advance());
+                }
+                deadline += period;
+                LockSupport.parkNanos(deadline - System.nanoTime());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void report(String name, LockstepSession session) {
+        System.out.printf("%-5s  ticks %d  scores %d/%d  rollbacks %d  re-simulated ticks %d  deepest %d  longest %.2f ms%n",
+                name, session.getTick(), session.getBoard(0).getScore(), session.getBoard(1).getScore(),
+                session.getRollbacks(), session.getResimulatedTicks(), session.getDeepestRollback(),
+                session.getLongestRollbackNanos() / 1e6);
+    }
+}